@@ -1,4 +1,5 @@
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Iterator;
 import java.util.NoSuchElementException;
 import java.util.Stack;
@@ -32,6 +33,48 @@ public class AATree<T extends Comparable<? super T>> implements
 		return false;
 	}
 
+	/*
+	 * Replaces the contents of the tree with the given elements, which must be
+	 * in strictly increasing order, in O(n) and without comparisons. See
+	 * buildFromSorted(Iterator, int).
+	 */
+	protected void buildFromSorted(T[] elements) {
+		this.buildFromSorted(Arrays.asList(elements).iterator(),
+				elements.length);
+	}
+
+	/*
+	 * Replaces the contents of the tree with the first size elements of the
+	 * given iterator, which must come in strictly increasing order. The middle
+	 * element becomes the root and each half one of its subtrees, with the
+	 * smaller half on the left. A subtree of n nodes gets level
+	 * floor(log2(n + 1)): its left child is then always one level lower, and
+	 * its right child is one level lower or, when n + 2 is a power of two, on
+	 * the same level with a right child one level lower still.
+	 */
+	protected void buildFromSorted(Iterator<? extends T> elements, int size) {
+		if (size < 0)
+			throw new IllegalArgumentException("Negative size");
+		this.root = this.build(elements, size);
+		this.size = size;
+	}
+
+	private BinaryNode build(Iterator<? extends T> elements, int size) {
+		if (size == 0)
+			return null;
+		int leftSize = (size - 1) / 2;
+		BinaryNode left = this.build(elements, leftSize);
+		T e = elements.next();
+		if (e == null)
+			throw new IllegalArgumentException("Can't insert null");
+		BinaryNode node = new BinaryNode(e);
+		node.level = 31 - Integer.numberOfLeadingZeros(size + 1);
+		node.leftChild = left;
+		node.rightChild = this.build(elements, size - 1 - leftSize);
+		node.subtreeSize = size;
+		return node;
+	}
+
 	protected boolean remove(T e) {
 		if (e == null || this.root == null)
 			return false;
@@ -59,15 +102,122 @@ public class AATree<T extends Comparable<? super T>> implements
 		return this.size;
 	}
 
+	/*
+	 * Returns the greatest element less than or equal to e, or null if there
+	 * is no such element.
+	 */
+	protected T floor(T e) {
+		return this.nearest(e, true, true);
+	}
+
+	/*
+	 * Returns the least element greater than or equal to e, or null if there
+	 * is no such element.
+	 */
+	protected T ceiling(T e) {
+		return this.nearest(e, false, true);
+	}
+
+	/*
+	 * Returns the greatest element strictly less than e, or null if there is
+	 * no such element.
+	 */
+	protected T lower(T e) {
+		return this.nearest(e, true, false);
+	}
+
+	/*
+	 * Returns the least element strictly greater than e, or null if there is
+	 * no such element.
+	 */
+	protected T higher(T e) {
+		return this.nearest(e, false, false);
+	}
+
+	/*
+	 * One pass down from the root: a node below e (or above it, when below is
+	 * false) is the best answer so far, and the search then turns towards e to
+	 * look for a closer one. Levels bound the depth, so this is O(log n).
+	 */
+	private T nearest(T e, boolean below, boolean inclusive) {
+		if (e == null)
+			throw new IllegalArgumentException("Can't search for null");
+		T best = null;
+		BinaryNode node = this.root;
+		while (node != null) {
+			int compared = e.compareTo(node.element);
+			if (compared == 0 && inclusive)
+				return node.element;
+			if (below ? compared > 0 : compared < 0) {
+				best = node.element;
+				node = below ? node.rightChild : node.leftChild;
+			} else {
+				node = below ? node.leftChild : node.rightChild;
+			}
+		}
+		return best;
+	}
+
+	/*
+	 * Returns the element with index k in sorted order, so select(0) is the
+	 * smallest, in O(log n) using the subtree size kept in every node.
+	 */
+	protected T select(int k) {
+		if (k < 0 || k >= sizeOf(this.root))
+			throw new IndexOutOfBoundsException("Index: " + k + ", Size: "
+					+ sizeOf(this.root));
+		BinaryNode node = this.root;
+		while (true) {
+			int leftSize = sizeOf(node.leftChild);
+			if (k < leftSize) {
+				node = node.leftChild;
+			} else if (k > leftSize) {
+				k -= leftSize + 1;
+				node = node.rightChild;
+			} else {
+				return node.element;
+			}
+		}
+	}
+
+	/*
+	 * Returns the number of elements smaller than e, in O(log n). This is the
+	 * index e has, or would have if it were inserted.
+	 */
+	protected int rank(T e) {
+		if (e == null)
+			throw new IllegalArgumentException("Can't rank null");
+		int rank = 0;
+		BinaryNode node = this.root;
+		while (node != null) {
+			int compared = e.compareTo(node.element);
+			if (compared < 0) {
+				node = node.leftChild;
+			} else {
+				if (compared == 0)
+					return rank + sizeOf(node.leftChild);
+				rank += sizeOf(node.leftChild) + 1;
+				node = node.rightChild;
+			}
+		}
+		return rank;
+	}
+
+	private int sizeOf(BinaryNode node) {
+		return node == null ? 0 : node.subtreeSize;
+	}
+
 	public class BinaryNode {
 		protected T element;
 		protected BinaryNode leftChild, rightChild;
 		protected int level;
+		protected int subtreeSize;
 
 		public BinaryNode(T e) {
 			this.element = e;
 			this.leftChild = this.rightChild = null;
 			this.level = 1;
+			this.subtreeSize = 1;
 		}
 
 		protected T getElement() {
@@ -78,6 +228,15 @@ public class AATree<T extends Comparable<? super T>> implements
 			return this.level;
 		}
 
+		protected int getSubtreeSize() {
+			return this.subtreeSize;
+		}
+
+		private void updateSize() {
+			this.subtreeSize = 1 + sizeOf(this.leftChild)
+					+ sizeOf(this.rightChild);
+		}
+
 		protected BinaryNode getLeftChild() {
 			return this.leftChild;
 		}
@@ -106,6 +265,7 @@ public class AATree<T extends Comparable<? super T>> implements
 					this.leftChild = this.leftChild.insert(e);
 				}
 			}
+			this.updateSize();
 			output = this.skew();
 			return output.split();
 		}
@@ -125,12 +285,14 @@ public class AATree<T extends Comparable<? super T>> implements
 				if (output.leftChild != null) {
 					replacement = output.leftChild;
 					while(replacement.rightChild != null) {
+						replacement.subtreeSize--;
 						parent = replacement;
 						replacement = replacement.rightChild;
 					}
 				} else if (output.rightChild != null) {
 					replacement = output.rightChild;
 					while(replacement.leftChild != null) {
+						replacement.subtreeSize--;
 						parent = replacement;
 						replacement = replacement.leftChild;
 					}
@@ -141,6 +303,7 @@ public class AATree<T extends Comparable<? super T>> implements
 				else
 					parent.rightChild = null;
 			}
+			output.updateSize();
 			
 			int minLevel = output.leftChild != null ? output.leftChild.level : output.level;
 			minLevel = output.rightChild != null && output.rightChild.level + 1 < minLevel ? output.rightChild.level + 1: minLevel;
@@ -213,6 +376,8 @@ public class AATree<T extends Comparable<? super T>> implements
 				output = this.leftChild;
 				this.leftChild = output.rightChild;
 				output.rightChild = this;
+				output.subtreeSize = this.subtreeSize;
+				this.updateSize();
 			}
 			return output;
 		}
@@ -226,6 +391,8 @@ public class AATree<T extends Comparable<? super T>> implements
 				this.rightChild = output.leftChild;
 				output.leftChild = this;
 				output.level++;
+				output.subtreeSize = this.subtreeSize;
+				this.updateSize();
 			}
 			return output;
 		}
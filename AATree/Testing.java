@@ -1,6 +1,9 @@
 import static org.junit.Assert.*;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.TreeSet;
 
 import org.junit.AfterClass;
 import org.junit.Test;
@@ -462,6 +465,144 @@ public class Testing {
 		points += 6;
 	}
 		
+	@Test
+	public void testBuildFromSorted(){
+		AATree<Integer> a = new AATree<Integer>();
+		for (int n = 0; n < 300; n++){
+			Integer[] elements = new Integer[n];
+			for (int k = 0; k < n; k++)
+				elements[k] = 3 * k;
+			a.buildFromSorted(elements);
+			assertEquals(n, a.size());
+			checkAA(a.root);
+			ArrayList<Integer> inOrder = new ArrayList<Integer>();
+			addInOrder(a.root, inOrder);
+			assertEquals(Arrays.asList(elements), inOrder);
+		}
+		assertEquals(0, a.rotationCount);
+		
+		a.buildFromSorted(new Integer[] {1, 2, 3, 4, 5, 6, 7});
+		ArrayList<Object> result = a.toArrayList();
+		int[] values = {4, 2, 1, 3, 6, 5, 7};
+		int[] levels = {3, 2, 1, 1, 2, 1, 1};
+		for (int k = 0; k < result.size(); k++){
+			assertEquals(values[k], ((AATree.BinaryNode) result.get(k)).getElement());
+			assertEquals(levels[k], ((AATree.BinaryNode) result.get(k)).getLevel());
+		}
+		a.insert(8);
+		a.insert(9);
+		checkAA(a.root);
+	}
+	
+	/*
+	 * Checks the AA tree rules for every node: leaves are on level 1, left
+	 * children are one level down, right children are at most one level down
+	 * and right grandchildren are below.
+	 */
+	private static void checkAA(AATree<Integer>.BinaryNode node){
+		if (node == null)
+			return;
+		AATree<Integer>.BinaryNode left = node.getLeftChild();
+		AATree<Integer>.BinaryNode right = node.getRightChild();
+		if (left == null || right == null)
+			assertEquals(1, node.getLevel());
+		if (left != null)
+			assertEquals(node.getLevel() - 1, left.getLevel());
+		if (right != null){
+			assertTrue(right.getLevel() == node.getLevel() || right.getLevel() == node.getLevel() - 1);
+			if (right.getRightChild() != null)
+				assertTrue(right.getRightChild().getLevel() < node.getLevel());
+		}
+		checkAA(left);
+		checkAA(right);
+	}
+	
+	private static void addInOrder(AATree<Integer>.BinaryNode node, ArrayList<Integer> list){
+		if (node == null)
+			return;
+		addInOrder(node.getLeftChild(), list);
+		list.add(node.getElement());
+		addInOrder(node.getRightChild(), list);
+	}
+	
+	@Test
+	public void testSelectAndRank(){
+		AATree<Integer> a = new AATree<Integer>();
+		try {
+			a.select(0);
+			fail("Did not throw IndexOutOfBoundsException");
+		} catch (IndexOutOfBoundsException e){
+			// Pass
+		}
+		assertEquals(0, a.rank(5));
+		
+		Random rand = new Random(230);
+		TreeSet<Integer> expected = new TreeSet<Integer>();
+		for (int k = 0; k < 3000; k++){
+			int e = rand.nextInt(5000);
+			expected.add(e);
+			a.insert(e);
+			assertEquals(expected.size(), checkSizes(a.root));
+		}
+		ArrayList<Integer> sorted = new ArrayList<Integer>(expected);
+		for (int k = 0; k < sorted.size(); k++){
+			assertEquals(sorted.get(k), a.select(k));
+			assertEquals(k, a.rank(sorted.get(k)));
+		}
+		for (int e = -1; e <= 5000; e++)
+			assertEquals(expected.headSet(e).size(), a.rank(e));
+		
+		Integer[] elements = new Integer[100];
+		for (int k = 0; k < elements.length; k++)
+			elements[k] = 2 * k;
+		a.buildFromSorted(elements);
+		assertEquals(100, checkSizes(a.root));
+		assertEquals(50, a.rank(99));
+		assertEquals(198, (int) a.select(99));
+	}
+	
+	/*
+	 * Checks that every node's subtree size is the sum of its children's
+	 * plus one, and returns the size of the subtree.
+	 */
+	private static int checkSizes(AATree<Integer>.BinaryNode node){
+		if (node == null)
+			return 0;
+		int size = 1 + checkSizes(node.getLeftChild()) + checkSizes(node.getRightChild());
+		assertEquals(size, node.getSubtreeSize());
+		return size;
+	}
+	
+	@Test
+	public void testFloorCeilingLowerHigher(){
+		AATree<Integer> b = new AATree<Integer>();
+		assertNull(b.floor(5));
+		assertNull(b.ceiling(5));
+		assertNull(b.lower(5));
+		assertNull(b.higher(5));
+		try {
+			b.floor(null);
+			fail("Did not throw IllegalArgumentException");
+		} catch (IllegalArgumentException e){
+			// Pass
+		}
+		
+		Random rand = new Random(223);
+		TreeSet<Integer> expected = new TreeSet<Integer>();
+		for (int k = 0; k < 2000; k++){
+			int e = 2 * rand.nextInt(1000);
+			expected.add(e);
+			b.insert(e);
+		}
+		assertEquals(expected.size(), b.size());
+		for (int e = -1; e <= 2000; e++){
+			assertEquals(expected.floor(e), b.floor(e));
+			assertEquals(expected.ceiling(e), b.ceiling(e));
+			assertEquals(expected.lower(e), b.lower(e));
+			assertEquals(expected.higher(e), b.higher(e));
+		}
+	}
+	
 		@AfterClass	
 		public static void testNothing(){
 			System.out.println(points);
@@ -1,8 +1,12 @@
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.ConcurrentModificationException;
 import java.util.Iterator;
 import java.util.NoSuchElementException;
+import java.util.Spliterator;
 import java.util.Stack;
+import java.util.function.Consumer;
 
 
 /**
@@ -111,6 +115,17 @@ public class AVLTree<T extends Comparable<? super T>> implements Iterable<T> {
 		return new LazyInOrderIterator();
 	}
 
+	/**
+	 * Returns a spliterator over the AVLTree in sorted order, unlike
+	 * iterator(), for parallel streams. It splits at subtree boundaries and
+	 * knows the exact size of every part from the subtree sizes.
+	 * 
+	 * @return a sized, sorted spliterator of the AVLTree
+	 */
+	public Spliterator<T> spliterator() {
+		return new LazySpliterator();
+	}
+
 	/**
 	 * Inserts a given element into the proper location in Binary Tree.
 	 * If successful, returns TRUE, else FALSE.
@@ -126,15 +141,83 @@ public class AVLTree<T extends Comparable<? super T>> implements Iterable<T> {
 			this.modifcations++;
 			return true;
 		}
-		int beforeSize = this.size;
+		int beforeSize = sizeOf(this.root);
 		this.root = this.root.getInsert(o);
-		if (this.size == beforeSize) {
+		if (sizeOf(this.root) == beforeSize) {
 			return false;
 		}
+		this.size = sizeOf(this.root);
 		this.modifcations++;
 		return true;
 	}
 
+	/**
+	 * Replaces the contents of the AVLTree with the given elements, which
+	 * must be in strictly increasing order. Builds a perfectly balanced tree
+	 * with correct heights in O(n), without rotations or comparisons.
+	 * 
+	 * @param elements
+	 *            - the elements in strictly increasing order
+	 * 
+	 * @throws IllegalArgumentException
+	 *             - if any element is null
+	 */
+	protected void buildFromSorted(T[] elements) {
+		this.buildFromSorted(Arrays.asList(elements).iterator(),
+				elements.length);
+	}
+
+	/**
+	 * Replaces the contents of the AVLTree with the first size elements of
+	 * the given iterator, which must come in strictly increasing order.
+	 * Builds a perfectly balanced tree with correct heights in O(n), without
+	 * rotations or comparisons.
+	 * 
+	 * @param elements
+	 *            - iterator over the elements in strictly increasing order
+	 * @param size
+	 *            - the number of elements to take from the iterator
+	 * 
+	 * @throws IllegalArgumentException
+	 *             - if size is negative or any element is null
+	 * @throws NoSuchElementException
+	 *             - if the iterator has fewer than size elements
+	 */
+	protected void buildFromSorted(Iterator<? extends T> elements, int size) {
+		if (size < 0)
+			throw new IllegalArgumentException("Negative size");
+		this.root = this.build(elements, size);
+		this.size = size;
+		this.modifcations++;
+	}
+
+	/**
+	 * Builds a perfectly balanced subtree out of the next size elements of
+	 * the iterator: the left half first, then the middle element, then the
+	 * right half, so the elements are taken in order.
+	 * 
+	 * @param elements
+	 *            - iterator over the elements in increasing order
+	 * @param size
+	 *            - the number of elements in the subtree
+	 * 
+	 * @return root of the subtree, or null if size is 0
+	 */
+	private BinaryNode build(Iterator<? extends T> elements, int size) {
+		if (size == 0)
+			return null;
+		int leftSize = (size - 1) / 2;
+		BinaryNode left = this.build(elements, leftSize);
+		T e = elements.next();
+		if (e == null)
+			throw new IllegalArgumentException("Can't insert null");
+		BinaryNode node = new BinaryNode(e);
+		node.leftChild = left;
+		node.rightChild = this.build(elements, size - 1 - leftSize);
+		node.adjustHeight();
+		return node;
+	}
+
 	/**
 	 * Receives an element of the parameterized Comparable type T and returns
 	 * TRUE if the element was successfully removed from the Binary Tree, else
@@ -149,15 +232,423 @@ public class AVLTree<T extends Comparable<? super T>> implements Iterable<T> {
 		if (this.root == null)
 			return false; 	// tree has no elements
 		// remove element
-		int beforeSize = this.size;
+		int beforeSize = sizeOf(this.root);
 		this.root = this.root.getRemove(element);
-		if (this.size < beforeSize) {
+		if (sizeOf(this.root) < beforeSize) {
+			this.size = sizeOf(this.root);
 			this.modifcations++;
 			return true;
 		}
 		return false;
 	}
 
+	/**
+	 * Returns the greatest element in the AVLTree less than or equal to the
+	 * given element, or null if there is no such element.
+	 * 
+	 * @param e
+	 *            - the value to match
+	 * 
+	 * @return the greatest element less than or equal to e, or null
+	 * 
+	 * @throws IllegalArgumentException
+	 *             - if e is null
+	 */
+	protected T floor(T e) {
+		return this.nearest(e, true, true);
+	}
+
+	/**
+	 * Returns the least element in the AVLTree greater than or equal to the
+	 * given element, or null if there is no such element.
+	 * 
+	 * @param e
+	 *            - the value to match
+	 * 
+	 * @return the least element greater than or equal to e, or null
+	 * 
+	 * @throws IllegalArgumentException
+	 *             - if e is null
+	 */
+	protected T ceiling(T e) {
+		return this.nearest(e, false, true);
+	}
+
+	/**
+	 * Returns the greatest element in the AVLTree strictly less than the given
+	 * element, or null if there is no such element.
+	 * 
+	 * @param e
+	 *            - the value to match
+	 * 
+	 * @return the greatest element less than e, or null
+	 * 
+	 * @throws IllegalArgumentException
+	 *             - if e is null
+	 */
+	protected T lower(T e) {
+		return this.nearest(e, true, false);
+	}
+
+	/**
+	 * Returns the least element in the AVLTree strictly greater than the given
+	 * element, or null if there is no such element.
+	 * 
+	 * @param e
+	 *            - the value to match
+	 * 
+	 * @return the least element greater than e, or null
+	 * 
+	 * @throws IllegalArgumentException
+	 *             - if e is null
+	 */
+	protected T higher(T e) {
+		return this.nearest(e, false, false);
+	}
+
+	/**
+	 * Searches for e as a lookup would. Each time the search moves away from
+	 * the wanted side, the node it leaves is the best candidate so far, and
+	 * the height of at most about 1.44 log n keeps the search short.
+	 * 
+	 * @param e
+	 *            - the value to match
+	 * @param below
+	 *            - true to look below e, false to look above it
+	 * @param inclusive
+	 *            - true if e itself is an answer
+	 * 
+	 * @return the closest element, or null if there is none
+	 */
+	private T nearest(T e, boolean below, boolean inclusive) {
+		if (e == null)
+			throw new IllegalArgumentException("Can't search for null");
+		T best = null;
+		BinaryNode node = this.root;
+		while (node != null) {
+			int compared = e.compareTo(node.element);
+			if (compared == 0 && inclusive)
+				return node.element;
+			if (below ? compared > 0 : compared < 0) {
+				best = node.element;
+				node = below ? node.rightChild : node.leftChild;
+			} else {
+				node = below ? node.leftChild : node.rightChild;
+			}
+		}
+		return best;
+	}
+
+	/**
+	 * Returns a view of the elements of the AVLTree from from to to, in order.
+	 * Each bound is left out unless its inclusive flag is set. The view reads
+	 * the tree every time it is used, so it sees later inserts and removes.
+	 * 
+	 * @param from
+	 *            - the lower bound
+	 * @param fromInclusive
+	 *            - true if from itself is in the view
+	 * @param to
+	 *            - the upper bound
+	 * @param toInclusive
+	 *            - true if to itself is in the view
+	 * 
+	 * @return a view of the elements between from and to
+	 * 
+	 * @throws IllegalArgumentException
+	 *             - if a bound is null or from is greater than to
+	 */
+	protected SubSet subSet(T from, boolean fromInclusive, T to,
+			boolean toInclusive) {
+		if (from == null || to == null)
+			throw new IllegalArgumentException("Bounds can't be null");
+		if (from.compareTo(to) > 0)
+			throw new IllegalArgumentException("from is greater than to");
+		return new SubSet(from, fromInclusive, to, toInclusive);
+	}
+
+	/**
+	 * Returns a view of the elements greater than or equal to from and less
+	 * than to.
+	 * 
+	 * @param from
+	 *            - the lower bound, included
+	 * @param to
+	 *            - the upper bound, left out
+	 * 
+	 * @return a view of the elements in [from, to)
+	 * 
+	 * @throws IllegalArgumentException
+	 *             - if a bound is null or from is greater than to
+	 */
+	protected SubSet subSet(T from, T to) {
+		return this.subSet(from, true, to, false);
+	}
+
+	/**
+	 * Returns a view of the elements less than to.
+	 * 
+	 * @param to
+	 *            - the upper bound, left out
+	 * 
+	 * @return a view of the elements below to
+	 * 
+	 * @throws IllegalArgumentException
+	 *             - if to is null
+	 */
+	protected SubSet headSet(T to) {
+		if (to == null)
+			throw new IllegalArgumentException("Bounds can't be null");
+		return new SubSet(null, false, to, false);
+	}
+
+	/**
+	 * Returns a view of the elements greater than or equal to from.
+	 * 
+	 * @param from
+	 *            - the lower bound, included
+	 * 
+	 * @return a view of the elements from from on
+	 * 
+	 * @throws IllegalArgumentException
+	 *             - if from is null
+	 */
+	protected SubSet tailSet(T from) {
+		if (from == null)
+			throw new IllegalArgumentException("Bounds can't be null");
+		return new SubSet(from, true, null, false);
+	}
+
+	/**
+	 * Returns the element with the specified index in sorted order, so
+	 * select(0) is the smallest element. Every node knows the size of its
+	 * subtree, so this is one walk down the tree in O(log n).
+	 * 
+	 * @param k
+	 *            - the index of the element, from 0 to size() - 1
+	 * 
+	 * @return the element with index k
+	 * 
+	 * @throws IndexOutOfBoundsException
+	 *             - if k is negative or not less than size()
+	 */
+	protected T select(int k) {
+		if (k < 0 || k >= this.size)
+			throw new IndexOutOfBoundsException("Index: " + k + ", Size: "
+					+ this.size);
+		BinaryNode node = this.root;
+		while (true) {
+			int leftSize = sizeOf(node.leftChild);
+			if (k < leftSize) {
+				node = node.leftChild;
+			} else if (k > leftSize) {
+				k -= leftSize + 1;
+				node = node.rightChild;
+			} else {
+				return node.element;
+			}
+		}
+	}
+
+	/**
+	 * Returns the number of elements in the AVLTree that are smaller than the
+	 * specified element, in O(log n). This is the index the element has, or
+	 * would have if it were inserted.
+	 * 
+	 * @param o
+	 *            - the element to rank
+	 * 
+	 * @return the number of smaller elements
+	 * 
+	 * @throws IllegalArgumentException
+	 *             - if the element is null
+	 */
+	protected int rank(T o) {
+		if (o == null)
+			throw new IllegalArgumentException("Can't rank null");
+		return this.countBelow(o, false);
+	}
+
+	/**
+	 * Returns the number of elements smaller than the specified element, or
+	 * smaller than or equal to it, in O(log n).
+	 * 
+	 * @param o
+	 *            - the element to compare to
+	 * @param inclusive
+	 *            - true to also count the element itself
+	 * 
+	 * @return the number of elements counted
+	 */
+	private int countBelow(T o, boolean inclusive) {
+		int count = 0;
+		BinaryNode node = this.root;
+		while (node != null) {
+			int compared = o.compareTo(node.element);
+			if (compared < 0) {
+				node = node.leftChild;
+			} else {
+				if (compared == 0)
+					return count + sizeOf(node.leftChild) + (inclusive ? 1 : 0);
+				count += sizeOf(node.leftChild) + 1;
+				node = node.rightChild;
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Returns the number of elements in the subtree of the specified node.
+	 * 
+	 * @param node
+	 *            - the root of the subtree, or null
+	 * 
+	 * @return size of the subtree, or 0 if node is null
+	 */
+	private int sizeOf(BinaryNode node) {
+		return node == null ? 0 : node.subtreeSize;
+	}
+
+	/**
+	 * Returns the height of the subtree of the specified node.
+	 * 
+	 * @param node
+	 *            - the root of the subtree, or null
+	 * 
+	 * @return height of the subtree, or -1 if node is null
+	 */
+	private int heightOf(BinaryNode node) {
+		return node == null ? -1 : node.height;
+	}
+
+	/**
+	 * Moves every element greater than or equal to the specified key out of
+	 * this AVLTree and into a new one, in O(log n). Every node on the path to
+	 * the key is joined back onto the pieces cut off on its side, and those
+	 * pieces shrink in height towards the bottom, so the joins add up to
+	 * O(log n).
+	 * 
+	 * Nodes keep counting their rotations on the tree they were inserted
+	 * into, so rotations in a tree that took nodes from another one are not
+	 * all counted by getRotationCount().
+	 * 
+	 * @param key
+	 *            - the smallest element to move out
+	 * 
+	 * @return a new AVLTree holding the elements greater than or equal to key
+	 * 
+	 * @throws IllegalArgumentException
+	 *             - if key is null
+	 */
+	protected AVLTree<T> split(T key) {
+		if (key == null)
+			throw new IllegalArgumentException("Can't split at null");
+		BinaryNode[] parts = this.split(this.root, key);
+		AVLTree<T> above = new AVLTree<T>();
+		above.root = parts[1];
+		above.size = sizeOf(parts[1]);
+		this.root = parts[0];
+		this.size = sizeOf(parts[0]);
+		this.modifcations++;
+		return above;
+	}
+
+	/**
+	 * Splits the subtree of the specified node into the elements less than
+	 * key and the elements greater than or equal to it.
+	 * 
+	 * @param node
+	 *            - the root of the subtree, or null
+	 * @param key
+	 *            - the smallest element of the upper part
+	 * 
+	 * @return the roots of the lower and the upper part
+	 */
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	private BinaryNode[] split(BinaryNode node, T key) {
+		if (node == null)
+			return (BinaryNode[]) new AVLTree.BinaryNode[2];
+		BinaryNode[] parts;
+		if (key.compareTo(node.element) <= 0) {
+			parts = this.split(node.leftChild, key);
+			parts[1] = this.join(parts[1], node, node.rightChild);
+		} else {
+			parts = this.split(node.rightChild, key);
+			parts[0] = this.join(node.leftChild, node, parts[0]);
+		}
+		return parts;
+	}
+
+	/**
+	 * Joins two AVLTrees and an element between them into a new AVLTree, in
+	 * O(log n). The pivot is hung from the taller tree at the depth where the
+	 * shorter one fits under it, and the tree is rebalanced on the way back
+	 * up. Both trees are left empty.
+	 * 
+	 * Nodes keep counting their rotations on the tree they were inserted
+	 * into, so rotations in the joined tree are not all counted by its
+	 * getRotationCount().
+	 * 
+	 * @param left
+	 *            - the tree of elements less than pivot
+	 * @param pivot
+	 *            - the element between the two trees
+	 * @param right
+	 *            - the tree of elements greater than pivot
+	 * 
+	 * @return a new AVLTree holding the elements of both trees and pivot
+	 * 
+	 * @throws IllegalArgumentException
+	 *             - if pivot is null, or left has an element not less than
+	 *             pivot, or right has an element not greater than it
+	 */
+	protected static <T extends Comparable<? super T>> AVLTree<T> join(
+			AVLTree<T> left, T pivot, AVLTree<T> right) {
+		if (pivot == null)
+			throw new IllegalArgumentException("Can't insert null");
+		if (left.ceiling(pivot) != null || right.floor(pivot) != null)
+			throw new IllegalArgumentException("Trees overlap the pivot");
+		AVLTree<T> output = new AVLTree<T>();
+		output.root = output.join(left.root, output.new BinaryNode(pivot),
+				right.root);
+		output.size = output.sizeOf(output.root);
+		left.root = right.root = null;
+		left.size = right.size = 0;
+		left.modifcations++;
+		right.modifcations++;
+		return output;
+	}
+
+	/**
+	 * Joins two subtrees with the specified node between them. The pivot
+	 * goes down the side of the taller subtree until the heights are at most
+	 * one apart, and each node passed is rebalanced on the way back up.
+	 * 
+	 * @param left
+	 *            - the root of the subtree of smaller elements, or null
+	 * @param pivot
+	 *            - the node between the two subtrees
+	 * @param right
+	 *            - the root of the subtree of greater elements, or null
+	 * 
+	 * @return root of the joined subtree
+	 */
+	private BinaryNode join(BinaryNode left, BinaryNode pivot,
+			BinaryNode right) {
+		if (heightOf(left) > heightOf(right) + 1) {
+			left.rightChild = this.join(left.rightChild, pivot, right);
+			return left.rebalance();
+		}
+		if (heightOf(right) > heightOf(left) + 1) {
+			right.leftChild = this.join(left, pivot, right.leftChild);
+			return right.rebalance();
+		}
+		pivot.leftChild = left;
+		pivot.rightChild = right;
+		pivot.adjustHeight();
+		return pivot;
+	}
+
 	/**
 	 * Returns the number of rotations needed on the AVLTree in order for it to
 	 * be a balanced tree.
@@ -179,10 +670,11 @@ public class AVLTree<T extends Comparable<? super T>> implements Iterable<T> {
 		private BinaryNode leftChild;
 		private BinaryNode rightChild;
 		private int height;
+		private int subtreeSize;
 
 		/**
 		 * Constructs a BinaryNode initializing children
-		 * to NULL and height to be 0.
+		 * to NULL, height to be 0 and subtree size to be 1.
 		 * 
 		 * @param e
 		 *            - the element of this BinaryNode
@@ -192,6 +684,7 @@ public class AVLTree<T extends Comparable<? super T>> implements Iterable<T> {
 			this.leftChild = null;
 			this.rightChild = null;
 			this.height = 0;
+			this.subtreeSize = 1;
 		}
 
 		/**
@@ -230,6 +723,15 @@ public class AVLTree<T extends Comparable<? super T>> implements Iterable<T> {
 			return this.height;
 		}
 
+		/**
+		 * Returns the number of elements in the subtree of this BinaryNode.
+		 * 
+		 * @return subtree size
+		 */
+		protected int getSubtreeSize() {
+			return this.subtreeSize;
+		}
+
 		/**
 		 * Inserts an element into the proper location in the tree.
 		 * 
@@ -251,19 +753,17 @@ public class AVLTree<T extends Comparable<? super T>> implements Iterable<T> {
 				// insert in the left subtree
 				if (this.leftChild == null) {
 					this.leftChild = new BinaryNode(o);
-					AVLTree.this.size++;
 				} else {
 					output.leftChild = this.leftChild.getInsert(o);
-					output = output.getRotation();	// check for rotations
+					output = output.rebalance();	// check for rotations
 				}
 			} else if (insertCompare > 0) {
 				// insert in the right subtree
 				if (this.rightChild == null) {
 					this.rightChild = new BinaryNode(o);
-					AVLTree.this.size++;
 				} else {
 					output.rightChild = this.rightChild.getInsert(o);
-					output = output.getRotation();	// check for rotations
+					output = output.rebalance();	// check for rotations
 				}
 			} else
 				return output;
@@ -295,30 +795,27 @@ public class AVLTree<T extends Comparable<? super T>> implements Iterable<T> {
 			} else {	// this is the element to remove
 				// Element to remove has no children
 				if (output.leftChild == null && output.rightChild == null) {
-					AVLTree.this.size--;
 					return null;
 				}
 				// Element to remove has leftChild
 				else if (output.rightChild == null) {
-					AVLTree.this.size--;
 					output = output.leftChild;
 				}
 				// Element to remove has rightChild
 				else if (output.leftChild == null) {
-					AVLTree.this.size--;
 					output = output.rightChild;
 				}
 				// Element has two children
 				else if (output.leftChild != null && output.rightChild != null) {
 					output.element = output.leftChild.findMax().element;
-					int beforeSize = AVLTree.this.size;
+					int beforeSize = sizeOf(output.leftChild);
 					output.leftChild = output.leftChild
 							.getRemove(output.element);
-					if (beforeSize != AVLTree.this.size + 1)
+					if (beforeSize != sizeOf(output.leftChild) + 1)
 						System.out.println("The size didn't change!");
 				}
 			}
-			output = output.getRotation(); 	// Check for rotations
+			output = output.rebalance(); 	// Check for rotations
 			output.adjustHeight(); 			// Update Height
 			return output;
 		}
@@ -336,47 +833,9 @@ public class AVLTree<T extends Comparable<? super T>> implements Iterable<T> {
 			return max;
 		}
 
-		/**
-		 * Finds if the tree needs to be rotated and will balance the tree, then
-		 * gets the root of the new tree.
-		 * 
-		 * @return root of rotated node
-		 */
-		private BinaryNode getRotation() {
-			if (this.leftChild == null && this.rightChild == null)
-				return this; // No rotations needed
-			if (this.leftChild == null) {
-				if (this.rightChild.height > 0) {
-					if (this.rightChild.rightChild == null) {
-						return rightLeftRotation(); // Right subtree is too high
-					}
-					return leftRotation();	// Right subtree is too high
-				}
-				return this; // No rotations needed
-			}
-			if (this.rightChild == null) {
-				if (this.leftChild.height > 0) {
-					if (this.leftChild.leftChild == null) {
-						return leftRightRotation(); // Left subtree is too high
-					}
-					return rightRotation(); // Left subtree is too high
-				}
-				return this; // No rotations needed
-			}
-			if (this.rightChild.height - this.leftChild.height > 1) {
-				return leftRotation();	// Right subtree is too high
-			}
-			if (this.leftChild.height - this.rightChild.height > 1) {
-				return rightRotation();	// Left subtree is too high
-			}
-			return this; // No rotations needed
-		}
-
 		/**
 		 * Adjusts this height by comparing the heights of the left and right
-		 * subtrees.
-		 * 
-		 * @return height of this node
+		 * subtrees, and this subtree size by adding up their sizes.
 		 */
 		private void adjustHeight() {
 			int leftHeight = this.leftChild == null ? 0
@@ -384,6 +843,36 @@ public class AVLTree<T extends Comparable<? super T>> implements Iterable<T> {
 			int rightHeight = this.rightChild == null ? 0
 					: this.rightChild.height + 1;
 			this.height = leftHeight > rightHeight ? leftHeight : rightHeight;
+			this.subtreeSize = 1 + sizeOf(this.leftChild)
+					+ sizeOf(this.rightChild);
+		}
+
+		/**
+		 * Rebalances this node after one of its subtrees grew or shrank by at
+		 * most one level, with a single or a double rotation, and updates its
+		 * height.
+		 * 
+		 * @return root of the balanced subtree
+		 */
+		private BinaryNode rebalance() {
+			this.adjustHeight();
+			BinaryNode output = this;
+			int balance = heightOf(this.rightChild) - heightOf(this.leftChild);
+			if (balance > 1) {
+				BinaryNode child = this.rightChild;
+				if (heightOf(child.leftChild) > heightOf(child.rightChild))
+					output = this.rightLeftRotation();
+				else
+					output = this.leftRotation();
+			} else if (balance < -1) {
+				BinaryNode child = this.leftChild;
+				if (heightOf(child.rightChild) > heightOf(child.leftChild))
+					output = this.leftRightRotation();
+				else
+					output = this.rightRotation();
+			}
+			output.adjustHeight();
+			return output;
 		}
 
 		/**
@@ -447,6 +936,96 @@ public class AVLTree<T extends Comparable<? super T>> implements Iterable<T> {
 		}
 	}
 
+	/**
+	 * A view of the elements of the AVLTree between two bounds, where a null
+	 * bound is open. Its iterator starts at the lower bound, so iterating
+	 * over k elements takes O(log n + k), and its size comes from the subtree
+	 * sizes in O(log n).
+	 * 
+	 * @author derrowap
+	 * 
+	 */
+	protected class SubSet implements Iterable<T> {
+		private T from;
+		private boolean fromInclusive;
+		private T to;
+		private boolean toInclusive;
+
+		/**
+		 * Constructs a SubSet with the specified bounds.
+		 * 
+		 * @param from
+		 *            - the lower bound, or null
+		 * @param fromInclusive
+		 *            - true if from itself is in the view
+		 * @param to
+		 *            - the upper bound, or null
+		 * @param toInclusive
+		 *            - true if to itself is in the view
+		 */
+		private SubSet(T from, boolean fromInclusive, T to,
+				boolean toInclusive) {
+			this.from = from;
+			this.fromInclusive = fromInclusive;
+			this.to = to;
+			this.toInclusive = toInclusive;
+		}
+
+		/**
+		 * Returns a lazy in-order iterator over the elements in the view.
+		 * 
+		 * @return a lazy in-order iterator of the view
+		 */
+		public Iterator<T> iterator() {
+			return new LazyInOrderIterator(this.from, this.fromInclusive,
+					this.to, this.toInclusive);
+		}
+
+		/**
+		 * Returns TRUE if there are no elements in the view and FALSE
+		 * otherwise.
+		 * 
+		 * @return boolean if the view is empty
+		 */
+		public boolean isEmpty() {
+			return this.size() == 0;
+		}
+
+		/**
+		 * Returns the number of elements in the view, in O(log n).
+		 * 
+		 * @return number of elements in the view
+		 */
+		public int size() {
+			int above = this.to == null ? AVLTree.this.size : AVLTree.this
+					.countBelow(this.to, this.toInclusive);
+			int below = this.from == null ? 0 : AVLTree.this.countBelow(
+					this.from, !this.fromInclusive);
+			return Math.max(above - below, 0);
+		}
+
+		/**
+		 * Places every element in the view into an ArrayList<T> in-order.
+		 * 
+		 * @return ArrayList<T> of the elements in the view
+		 */
+		public ArrayList<T> toArrayList() {
+			ArrayList<T> output = new ArrayList<>();
+			for (T e : this)
+				output.add(e);
+			return output;
+		}
+
+		/**
+		 * Returns a String of the elements in the view, in order.
+		 * 
+		 * @return String of the elements in the view
+		 */
+		public String toString() {
+			return this.toArrayList().toString();
+		}
+	}
+
 	/**
 	 * A lazy in-order iterator object.
 	 * 
@@ -457,6 +1036,8 @@ public class AVLTree<T extends Comparable<? super T>> implements Iterable<T> {
 		Stack<BinaryNode> stack = new Stack<>();
 		BinaryNode lastNode;
 		int modifications;
+		T to;
+		boolean toInclusive;
 
 		/**
 		 * Constructs a lazy in-order iterator object.
@@ -477,6 +1058,41 @@ public class AVLTree<T extends Comparable<? super T>> implements Iterable<T> {
 			}
 		}
 
+		/**
+		 * Constructs a lazy in-order iterator object that starts at from and
+		 * stops after to, where a null bound is open. Only the path down to
+		 * the first element goes on the stack, so going through k elements
+		 * takes O(log n + k) instead of starting at the smallest element.
+		 * 
+		 * @param from
+		 *            - the lower bound, or null
+		 * @param fromInclusive
+		 *            - true if from itself is returned
+		 * @param to
+		 *            - the upper bound, or null
+		 * @param toInclusive
+		 *            - true if to itself is returned
+		 */
+		private LazyInOrderIterator(T from, boolean fromInclusive, T to,
+				boolean toInclusive) {
+			this.modifications = AVLTree.this.modifcations;
+			this.lastNode = null;
+			this.to = to;
+			this.toInclusive = toInclusive;
+			BinaryNode node = AVLTree.this.root;
+			while (node != null) {
+				int compared = from == null ? 1 : node.element.compareTo(from);
+				if (compared > 0 || (compared == 0 && fromInclusive)) {
+					// node is in range, so it comes after its left subtree
+					this.stack.push(node);
+					node = node.leftChild;
+				} else {
+					// node and its left subtree are all below from
+					node = node.rightChild;
+				}
+			}
+		}
+
 		/**
 		 * Checks if there exists a next element in the iterator. If there is,
 		 * return TRUE, else FALSE.
@@ -484,7 +1100,12 @@ public class AVLTree<T extends Comparable<? super T>> implements Iterable<T> {
 		 * @return boolean if there is a next value
 		 */
 		public boolean hasNext() {
-			return !this.stack.empty();
+			if (this.stack.empty())
+				return false;
+			if (this.to == null)
+				return true;
+			int compared = this.stack.peek().element.compareTo(this.to);
+			return compared < 0 || (compared == 0 && this.toInclusive);
 		}
 
 		/**
@@ -539,6 +1160,140 @@ public class AVLTree<T extends Comparable<? super T>> implements Iterable<T> {
 		}
 	}
 
+	/**
+	 * An in-order spliterator object. Like LazyInOrderIterator it keeps a stack
+	 * of nodes, each of which comes before its right subtree, and it may start
+	 * with a pending node that comes before all of them. Splitting hands off
+	 * every stack entry but the bottom one, which is a node and its right
+	 * subtree; from the root, that splits the tree at the root. A stack with
+	 * only one entry splits inside the right subtree of that node instead.
+	 * 
+	 * @author derrowap
+	 * 
+	 */
+	private class LazySpliterator implements Spliterator<T> {
+		Stack<BinaryNode> stack;
+		BinaryNode pending;
+		int size;
+		int modifications;
+
+		/**
+		 * Constructs a spliterator over the whole tree.
+		 */
+		private LazySpliterator() {
+			this.stack = new Stack<>();
+			this.pending = null;
+			this.size = AVLTree.this.size;
+			this.modifications = AVLTree.this.modifcations;
+			this.pushLeft(this.stack, AVLTree.this.root);
+		}
+
+		/**
+		 * Constructs a spliterator split off from another one.
+		 * 
+		 * @param pending
+		 *            - the node to return first, or null
+		 * @param stack
+		 *            - the stack of nodes to return after it
+		 * @param size
+		 *            - the number of elements
+		 * @param modifications
+		 *            - the modification count the tree had to start with
+		 */
+		private LazySpliterator(BinaryNode pending, Stack<BinaryNode> stack,
+				int size, int modifications) {
+			this.stack = stack;
+			this.pending = pending;
+			this.size = size;
+			this.modifications = modifications;
+		}
+
+		/**
+		 * Pushes the specified node and all of its left children on the
+		 * specified stack.
+		 * 
+		 * @param stack
+		 *            - the stack to push onto
+		 * @param node
+		 *            - the node to start at, or null
+		 */
+		private void pushLeft(Stack<BinaryNode> stack, BinaryNode node) {
+			while (node != null) {
+				stack.push(node);
+				node = node.leftChild;
+			}
+		}
+
+		public boolean tryAdvance(Consumer<? super T> action) {
+			if (action == null)
+				throw new NullPointerException();
+			if (this.modifications != AVLTree.this.modifcations)
+				throw new ConcurrentModificationException();
+			BinaryNode node = this.pending;
+			if (node != null) {
+				this.pending = null;
+			} else {
+				if (this.stack.empty())
+					return false;
+				node = this.stack.pop();
+				this.pushLeft(this.stack, node.rightChild);
+			}
+			this.size--;
+			action.accept(node.element);
+			return true;
+		}
+
+		public Spliterator<T> trySplit() {
+			Stack<BinaryNode> prefix = new Stack<>();
+			BinaryNode prefixPending = this.pending;
+			int prefixSize;
+			if (this.stack.size() >= 2) {
+				BinaryNode last = this.stack.get(0);
+				prefix.addAll(this.stack.subList(1, this.stack.size()));
+				this.stack.setSize(1);
+				prefixSize = this.size - 1 - sizeOf(last.rightChild);
+			} else if (this.stack.size() == 1 && this.pending == null) {
+				BinaryNode node = this.stack.peek();
+				BinaryNode right = node.rightChild;
+				if (right == null)
+					return null;
+				// node and the left subtree of right go, right and its right
+				// subtree stay
+				prefixPending = this.stack.pop();
+				this.stack.push(right);
+				this.pushLeft(prefix, right.leftChild);
+				prefixSize = 1 + sizeOf(right.leftChild);
+			} else if (this.stack.size() == 1) {
+				prefixSize = 1;
+			} else {
+				return null;
+			}
+			this.pending = null;
+			this.size -= prefixSize;
+			return new LazySpliterator(prefixPending, prefix, prefixSize,
+					this.modifications);
+		}
+
+		public long estimateSize() {
+			return this.size;
+		}
+
+		public int characteristics() {
+			return Spliterator.ORDERED | Spliterator.SORTED
+					| Spliterator.DISTINCT | Spliterator.NONNULL
+					| Spliterator.SIZED | Spliterator.SUBSIZED;
+		}
+
+		/**
+		 * Returns null, since the elements are in their natural order.
+		 * 
+		 * @return the order of the elements
+		 */
+		public Comparator<? super T> getComparator() {
+			return null;
+		}
+	}
+
 	/**
 	 * A lazy pre-order iterator object.
 	 * 
@@ -1,7 +1,16 @@
 import static org.junit.Assert.*;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.SortedSet;
+import java.util.Spliterator;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
 
 import org.junit.AfterClass;
 import org.junit.Test;
@@ -636,6 +645,329 @@ public void testingAVLRemoveDoubleLeftRotationWithRoot(){
 	}
 	
 		
+	@Test
+	public void testBuildFromSorted(){
+		AVLTree<Integer> b = new AVLTree<Integer>();
+		for (int n = 0; n < 300; n++){
+			Integer[] elements = new Integer[n];
+			for (int k = 0; k < n; k++)
+				elements[k] = 3 * k;
+			b.buildFromSorted(elements);
+			assertEquals(n, b.size());
+			assertEquals(n == 0 ? -1 : 31 - Integer.numberOfLeadingZeros(n), b.height());
+			assertEquals(b.height(), checkAVL(b.root));
+			assertEquals(Arrays.toString(elements), toInOrder(b));
+		}
+		assertEquals(0, b.getRotationCount());
+		
+		b.buildFromSorted(Arrays.asList(1, 2, 3, 4, 5, 6).iterator(), 6);
+		assertTrue(b.insert(7));
+		assertTrue(b.insert(8));
+		assertTrue(b.remove(1));
+		assertEquals(b.height(), checkAVL(b.root));
+		assertEquals("[2, 3, 4, 5, 6, 7, 8]", toInOrder(b));
+		
+		try {
+			b.buildFromSorted(Arrays.asList(1, 2).iterator(), 3);
+			fail("Did not throw NoSuchElementException");
+		} catch (NoSuchElementException e){
+			// Pass
+		}
+	}
+	
+	private static String toInOrder(AVLTree<Integer> b){
+		ArrayList<Integer> m = new ArrayList<Integer>();
+		Iterator<Integer> i = b.inOrderIterator();
+		while (i.hasNext())
+			m.add(i.next());
+		return m.toString();
+	}
+	
+	/*
+	 * Checks that every stored height is correct and every node is balanced,
+	 * and returns the height of the subtree.
+	 */
+	private static int checkAVL(AVLTree<Integer>.BinaryNode node){
+		if (node == null)
+			return -1;
+		int left = checkAVL(node.getLeftChild());
+		int right = checkAVL(node.getRightChild());
+		assertTrue(Math.abs(left - right) <= 1);
+		assertEquals(Math.max(left, right) + 1, node.getHeight());
+		return node.getHeight();
+	}
+	
+	@Test
+	public void testSelectAndRank(){
+		AVLTree<Integer> b = new AVLTree<Integer>();
+		try {
+			b.select(0);
+			fail("Did not throw IndexOutOfBoundsException");
+		} catch (IndexOutOfBoundsException e){
+			// Pass
+		}
+		assertEquals(0, b.rank(5));
+		
+		Random rand = new Random(230);
+		TreeSet<Integer> expected = new TreeSet<Integer>();
+		for (int k = 0; k < 5000; k++){
+			int e = rand.nextInt(2000);
+			if (rand.nextInt(3) == 0)
+				assertEquals(expected.remove(e), b.remove(e));
+			else
+				assertEquals(expected.add(e), b.insert(e));
+			assertEquals(expected.size(), checkSizes(b.root));
+		}
+		ArrayList<Integer> sorted = new ArrayList<Integer>(expected);
+		for (int k = 0; k < sorted.size(); k++){
+			assertEquals(sorted.get(k), b.select(k));
+			assertEquals(k, b.rank(sorted.get(k)));
+		}
+		for (int e = -1; e <= 2000; e++)
+			assertEquals(expected.headSet(e).size(), b.rank(e));
+		try {
+			b.select(b.size());
+			fail("Did not throw IndexOutOfBoundsException");
+		} catch (IndexOutOfBoundsException e){
+			// Pass
+		}
+		
+		Integer[] elements = new Integer[100];
+		for (int k = 0; k < elements.length; k++)
+			elements[k] = 2 * k;
+		b.buildFromSorted(elements);
+		assertEquals(100, checkSizes(b.root));
+		assertEquals(50, b.rank(99));
+		assertEquals(198, (int) b.select(99));
+	}
+	
+	/*
+	 * Checks that every node's subtree size is the sum of its children's
+	 * plus one, and returns the size of the subtree.
+	 */
+	private static int checkSizes(AVLTree<Integer>.BinaryNode node){
+		if (node == null)
+			return 0;
+		int size = 1 + checkSizes(node.getLeftChild()) + checkSizes(node.getRightChild());
+		assertEquals(size, node.getSubtreeSize());
+		return size;
+	}
+	
+	@Test
+	public void testFloorCeilingLowerHigher(){
+		AVLTree<Integer> b = new AVLTree<Integer>();
+		assertNull(b.floor(5));
+		assertNull(b.ceiling(5));
+		assertNull(b.lower(5));
+		assertNull(b.higher(5));
+		try {
+			b.floor(null);
+			fail("Did not throw IllegalArgumentException");
+		} catch (IllegalArgumentException e){
+			// Pass
+		}
+		
+		Random rand = new Random(221);
+		TreeSet<Integer> expected = new TreeSet<Integer>();
+		for (int k = 0; k < 2000; k++){
+			int e = 2 * rand.nextInt(1000);
+			if (rand.nextInt(3) == 0)
+				assertEquals(expected.remove(e), b.remove(e));
+			else
+				assertEquals(expected.add(e), b.insert(e));
+		}
+		for (int e = -1; e <= 2000; e++){
+			assertEquals(expected.floor(e), b.floor(e));
+			assertEquals(expected.ceiling(e), b.ceiling(e));
+			assertEquals(expected.lower(e), b.lower(e));
+			assertEquals(expected.higher(e), b.higher(e));
+		}
+	}
+	
+	@Test
+	public void testRangeViews(){
+		AVLTree<Integer> b = new AVLTree<Integer>();
+		assertEquals(0, b.subSet(1, 5).size());
+		assertFalse(b.tailSet(1).iterator().hasNext());
+		try {
+			b.subSet(5, 1);
+			fail("Did not throw IllegalArgumentException");
+		} catch (IllegalArgumentException e){
+			// Pass
+		}
+		
+		Random rand = new Random(231);
+		TreeSet<Integer> expected = new TreeSet<Integer>();
+		for (int k = 0; k < 1000; k++){
+			int e = 2 * rand.nextInt(500);
+			expected.add(e);
+			b.insert(e);
+		}
+		for (int k = 0; k < 200; k++){
+			int from = rand.nextInt(1002) - 1;
+			int to = from + rand.nextInt(1002 - from);
+			boolean fromInclusive = rand.nextBoolean();
+			boolean toInclusive = rand.nextBoolean();
+			assertRange(expected.subSet(from, fromInclusive, to, toInclusive),
+					b.subSet(from, fromInclusive, to, toInclusive));
+			assertRange(expected.subSet(from, to), b.subSet(from, to));
+			assertRange(expected.headSet(to), b.headSet(to));
+			assertRange(expected.tailSet(from), b.tailSet(from));
+		}
+		
+		AVLTree<Integer>.SubSet view = b.subSet(100, 200);
+		int before = view.size();
+		b.insert(151);
+		assertEquals(before + 1, view.size());
+		b.remove(151);
+		assertEquals(before, view.size());
+	}
+	
+	private static void assertRange(SortedSet<Integer> expected,
+			AVLTree<Integer>.SubSet actual){
+		assertEquals(expected.size(), actual.size());
+		assertEquals(expected.isEmpty(), actual.isEmpty());
+		Iterator<Integer> i = actual.iterator();
+		for (Integer e : expected){
+			assertTrue(i.hasNext());
+			assertEquals(e, i.next());
+		}
+		assertFalse(i.hasNext());
+	}
+	
+	@Test
+	public void testSpliterator(){
+		AVLTree<Integer> b = new AVLTree<Integer>();
+		assertFalse(b.spliterator().tryAdvance(e -> fail()));
+		assertNull(b.spliterator().trySplit());
+		
+		Random rand = new Random(241);
+		TreeSet<Integer> expected = new TreeSet<Integer>();
+		for (int k = 0; k < 3000; k++){
+			int e = rand.nextInt(5000);
+			expected.add(e);
+			b.insert(e);
+		}
+		Spliterator<Integer> s = b.spliterator();
+		assertTrue(s.hasCharacteristics(Spliterator.SORTED | Spliterator.DISTINCT
+				| Spliterator.SIZED));
+		assertEquals(expected.size(), s.getExactSizeIfKnown());
+		ArrayList<Integer> actual = new ArrayList<Integer>();
+		splitAll(s, actual);
+		assertEquals(new ArrayList<Integer>(expected), actual);
+		
+		List<Integer> parallel = StreamSupport.stream(b.spliterator(), true)
+				.collect(Collectors.toList());
+		assertEquals(new ArrayList<Integer>(expected), parallel);
+		assertEquals(expected.stream().mapToLong(e -> e).sum(),
+				StreamSupport.stream(b.spliterator(), true)
+						.mapToLong(e -> e).sum());
+	}
+	
+	/*
+	 * Splits the spliterator as far as it goes, depth first, and adds the
+	 * elements of every part to the list in order.
+	 */
+	private static void splitAll(Spliterator<Integer> s, List<Integer> list){
+		long total = s.estimateSize();
+		Spliterator<Integer> prefix = s.trySplit();
+		if (prefix == null){
+			long size = s.estimateSize();
+			int before = list.size();
+			s.forEachRemaining(e -> list.add(e));
+			assertEquals(size, list.size() - before);
+			return;
+		}
+		assertTrue(s.hasCharacteristics(Spliterator.SUBSIZED));
+		assertEquals(total, prefix.estimateSize() + s.estimateSize());
+		splitAll(prefix, list);
+		splitAll(s, list);
+	}
+	
+	@Test
+	public void testSplitAndJoin(){
+		Random rand = new Random(250);
+		for (int round = 0; round < 40; round++){
+			AVLTree<Integer> b = new AVLTree<Integer>();
+			TreeSet<Integer> expected = new TreeSet<Integer>();
+			int n = rand.nextInt(round < 20 ? 20 : 2000);
+			for (int k = 0; k < n; k++){
+				int e = 2 * rand.nextInt(2000);
+				assertEquals(expected.add(e), b.insert(e));
+			}
+			for (int k = 0; k < n / 4; k++){
+				int e = 2 * rand.nextInt(2000);
+				assertEquals(expected.remove(e), b.remove(e));
+			}
+			checkAVL(b.root);
+			int key = rand.nextInt(4002) - 1;
+			AVLTree<Integer> above = b.split(key);
+			checkAVL(b.root);
+			checkAVL(above.root);
+			assertTree(expected.headSet(key), b);
+			assertTree(expected.tailSet(key), above);
+			
+			// take the pivot out of the upper part and join everything back
+			Integer pivot = expected.ceiling(key);
+			if (pivot == null){
+				pivot = 4001;
+				expected.add(pivot);
+			} else {
+				assertTrue(above.remove(pivot));
+			}
+			AVLTree<Integer> joined = AVLTree.join(b, pivot, above);
+			checkAVL(joined.root);
+			assertTree(expected, joined);
+			assertEquals(0, b.size());
+			assertEquals(0, above.size());
+			
+			// nodes from both trees still update the sizes of the joined one
+			for (int k = 0; k < 200; k++){
+				int e = rand.nextInt(4002);
+				if (rand.nextBoolean())
+					assertEquals(expected.add(e), joined.insert(e));
+				else
+					assertEquals(expected.remove(e), joined.remove(e));
+			}
+			checkAVL(joined.root);
+			assertTree(expected, joined);
+		}
+		
+		AVLTree<Integer> small = new AVLTree<Integer>();
+		small.insert(1);
+		AVLTree<Integer> large = new AVLTree<Integer>();
+		TreeSet<Integer> expected = new TreeSet<Integer>();
+		expected.add(1);
+		expected.add(2);
+		for (int k = 3; k < 3000; k++){
+			large.insert(k);
+			expected.add(k);
+		}
+		checkAVL(large.root);
+		AVLTree<Integer> joined = AVLTree.join(small, 2, large);
+		checkAVL(joined.root);
+		assertTree(expected, joined);
+		large.insert(3);
+		try {
+			AVLTree.join(new AVLTree<Integer>(), 5, large);
+			fail("Did not throw IllegalArgumentException");
+		} catch (IllegalArgumentException e){
+			// Pass
+		}
+	}
+	
+	/*
+	 * Checks that the sizes of the tree add up and that it holds exactly the
+	 * expected elements.
+	 */
+	private static void assertTree(SortedSet<Integer> expected, AVLTree<Integer> b){
+		assertEquals(expected.size(), checkSizes(b.root));
+		assertEquals(expected.size(), b.size());
+		int k = 0;
+		for (Integer e : expected)
+			assertEquals(e, b.select(k++));
+	}
+	
 	@AfterClass
 	public static void testNothing(){
 		System.out.println("Points: " + points);
@@ -1,11 +1,23 @@
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.ConcurrentModificationException;
 import java.util.Iterator;
 import java.util.NoSuchElementException;
+import java.util.Spliterator;
 import java.util.Stack;
+import java.util.function.Consumer;
 
 public class BinarySearchTree<T extends Comparable<? super T>> implements
 		Iterable<T> {
+	/*
+	 * An insert deeper than DEPTH_FACTOR * log2(size) rebuilds part of the
+	 * tree. Some ancestor of such a node has a child holding more than ALPHA
+	 * of its subtree, where ALPHA = 2^(-1 / DEPTH_FACTOR).
+	 */
+	private static final double DEPTH_FACTOR = 2;
+	private static final double ALPHA = Math.pow(2, -1 / DEPTH_FACTOR);
+
 	private BinaryNode root;
 	protected int size;
 	protected int modifcations = 0;
@@ -85,6 +97,57 @@ public class BinarySearchTree<T extends Comparable<? super T>> implements
 		return new LazyPreOrderIterator(this.root);
 	}
 
+	/*
+	 * returns an in-order spliterator for parallel streams that splits at
+	 * subtree boundaries. The tree keeps no subtree sizes, so only the size of
+	 * the whole tree is exact and the parts it splits into are estimates.
+	 */
+	@Override
+	public Spliterator<T> spliterator() {
+		return new LazySpliterator();
+	}
+
+	/*
+	 * Returns a view of the elements from from to to, in order. Each bound is
+	 * left out unless its inclusive flag is set. The view reads the tree every
+	 * time it is used, so it sees later inserts and removes. Throws an
+	 * IllegalArgumentException if a bound is null or from is greater than to
+	 */
+	public SubSet subSet(T from, boolean fromInclusive, T to,
+			boolean toInclusive) {
+		if (from == null || to == null)
+			throw new IllegalArgumentException("Bounds can't be null");
+		if (from.compareTo(to) > 0)
+			throw new IllegalArgumentException("from is greater than to");
+		return new SubSet(from, fromInclusive, to, toInclusive);
+	}
+
+	/*
+	 * Returns a view of the elements greater than or equal to from and less
+	 * than to
+	 */
+	public SubSet subSet(T from, T to) {
+		return this.subSet(from, true, to, false);
+	}
+
+	/*
+	 * Returns a view of the elements less than to
+	 */
+	public SubSet headSet(T to) {
+		if (to == null)
+			throw new IllegalArgumentException("Bounds can't be null");
+		return new SubSet(null, false, to, false);
+	}
+
+	/*
+	 * Returns a view of the elements greater than or equal to from
+	 */
+	public SubSet tailSet(T from) {
+		if (from == null)
+			throw new IllegalArgumentException("Bounds can't be null");
+		return new SubSet(from, true, null, false);
+	}
+
 	/*
 	 * Inserts a given element into the proper location in Binary Tree
 	 * 
@@ -99,11 +162,216 @@ public class BinarySearchTree<T extends Comparable<? super T>> implements
 			this.modifcations++;
 			return true;
 		}
-		if (this.root.getInsert(o)) {
-			this.modifcations++;
-			return true;
+		int depth = this.root.getInsert(o);
+		if (depth < 0)
+			return false;
+		if (depth > DEPTH_FACTOR * Math.log(this.size) / Math.log(2))
+			this.rebuildScapegoat(o, depth);
+		this.modifcations++;
+		return true;
+	}
+
+	/*
+	 * Rebalances the whole tree in place with the Day-Stout-Warren algorithm
+	 * in O(n) time and O(1) extra space, leaving every level full except
+	 * possibly the last.
+	 */
+	public void rebalance() {
+		this.root = this.rebuild(this.root, this.size);
+		this.modifcations++;
+	}
+
+	/*
+	 * Called after inserting o at a depth past the limit. Walks back up the
+	 * path to o, counting subtree sizes, until it finds an ancestor one of
+	 * whose children holds more than ALPHA of its nodes, and rebuilds the
+	 * subtree of that ancestor. Rebuilding only that subtree keeps inserts
+	 * O(log n) amortized even when every key is larger than the last.
+	 */
+	private void rebuildScapegoat(T o, int depth) {
+		ArrayList<BinaryNode> path = new ArrayList<>(depth + 1);
+		BinaryNode node = this.root;
+		while (node != null) {
+			path.add(node);
+			int compared = o.compareTo(node.element);
+			if (compared == 0)
+				break;
+			node = compared < 0 ? node.leftChild : node.rightChild;
+		}
+		int childSize = 1;
+		for (int i = path.size() - 2; i >= 0; i--) {
+			BinaryNode parent = path.get(i);
+			BinaryNode child = path.get(i + 1);
+			BinaryNode sibling = parent.leftChild == child ? parent.rightChild
+					: parent.leftChild;
+			int parentSize = childSize + 1
+					+ (sibling == null ? 0 : sibling.countNodes());
+			if (childSize > ALPHA * parentSize) {
+				BinaryNode rebuilt = this.rebuild(parent, parentSize);
+				if (i == 0)
+					this.root = rebuilt;
+				else if (path.get(i - 1).leftChild == parent)
+					path.get(i - 1).leftChild = rebuilt;
+				else
+					path.get(i - 1).rightChild = rebuilt;
+				return;
+			}
+			childSize = parentSize;
+		}
+	}
+
+	/*
+	 * Day-Stout-Warren: rotates the subtree into a vine of right children,
+	 * then rotates every other node of the vine left, repeatedly, to fold it
+	 * back into a complete tree. A dummy node stands in as the parent of the
+	 * subtree so the top of the vine can be rotated like any other node.
+	 * 
+	 * @return the new root of the subtree
+	 */
+	private BinaryNode rebuild(BinaryNode subtree, int count) {
+		BinaryNode pseudoRoot = new BinaryNode(null);
+		pseudoRoot.rightChild = subtree;
+		// Tree to vine
+		BinaryNode tail = pseudoRoot;
+		BinaryNode rest = tail.rightChild;
+		while (rest != null) {
+			if (rest.leftChild == null) {
+				tail = rest;
+				rest = rest.rightChild;
+			} else {
+				BinaryNode temp = rest.leftChild;
+				rest.leftChild = temp.rightChild;
+				temp.rightChild = rest;
+				rest = temp;
+				tail.rightChild = temp;
+			}
+		}
+		// Vine to tree: first fill the partial bottom level, then halve
+		int full = Integer.highestOneBit(count + 1) - 1;
+		this.compress(pseudoRoot, count - full);
+		while (full > 1) {
+			full /= 2;
+			this.compress(pseudoRoot, full);
+		}
+		return pseudoRoot.rightChild;
+	}
+
+	/*
+	 * Rotates left the first count nodes at even positions along the right
+	 * spine below the given node.
+	 */
+	private void compress(BinaryNode pseudoRoot, int count) {
+		BinaryNode scanner = pseudoRoot;
+		for (int i = 0; i < count; i++) {
+			BinaryNode child = scanner.rightChild;
+			scanner.rightChild = child.rightChild;
+			scanner = scanner.rightChild;
+			child.rightChild = scanner.leftChild;
+			scanner.leftChild = child;
+		}
+	}
+
+	/*
+	 * Returns the greatest element less than or equal to e, or null if there
+	 * is no such element.
+	 */
+	public T floor(T e) {
+		return this.nearest(e, true, true);
+	}
+
+	/*
+	 * Returns the least element greater than or equal to e, or null if there
+	 * is no such element.
+	 */
+	public T ceiling(T e) {
+		return this.nearest(e, false, true);
+	}
+
+	/*
+	 * Returns the greatest element strictly less than e, or null if there is
+	 * no such element.
+	 */
+	public T lower(T e) {
+		return this.nearest(e, true, false);
+	}
+
+	/*
+	 * Returns the least element strictly greater than e, or null if there is
+	 * no such element.
+	 */
+	public T higher(T e) {
+		return this.nearest(e, false, false);
+	}
+
+	/*
+	 * Shared by floor, ceiling, lower and higher. Follows the search path of e
+	 * and keeps the latest element found on the requested side; the path only
+	 * gets closer to e, so that element is the nearest one. The cost is the
+	 * depth of the path, which the DSW rebuild in insert keeps logarithmic.
+	 */
+	private T nearest(T e, boolean below, boolean inclusive) {
+		if (e == null)
+			throw new IllegalArgumentException("Can't search for null");
+		T best = null;
+		BinaryNode node = this.root;
+		while (node != null) {
+			int compared = e.compareTo(node.element);
+			if (compared == 0 && inclusive)
+				return node.element;
+			if (below ? compared > 0 : compared < 0) {
+				best = node.element;
+				node = below ? node.rightChild : node.leftChild;
+			} else {
+				node = below ? node.leftChild : node.rightChild;
+			}
 		}
-		return false;
+		return best;
+	}
+
+	/*
+	 * Replaces the contents of the tree with the given elements, which must be
+	 * in strictly increasing order. The middle element becomes the root and
+	 * each half becomes one of its subtrees, so the tree is perfectly
+	 * balanced. Runs in O(n) and never compares elements; elements that are
+	 * out of order or duplicated leave the tree unordered.
+	 */
+	public void buildFromSorted(T[] elements) {
+		this.buildFromSorted(Arrays.asList(elements).iterator(),
+				elements.length);
+	}
+
+	/*
+	 * Replaces the contents of the tree with the first size elements of the
+	 * given iterator, which must come in strictly increasing order. Throws a
+	 * NoSuchElementException if the iterator has fewer elements.
+	 */
+	public void buildFromSorted(Iterator<? extends T> elements, int size) {
+		if (size < 0)
+			throw new IllegalArgumentException("Negative size");
+		this.root = this.build(elements, size);
+		this.size = size;
+		this.modifcations++;
+	}
+
+	/*
+	 * Builds a perfectly balanced subtree out of the next size elements of
+	 * the iterator: the left half first, then the middle element, then the
+	 * right half, so the elements are taken in order.
+	 * 
+	 * @return root of the subtree, or null if size is 0
+	 */
+	private BinaryNode build(Iterator<? extends T> elements, int size) {
+		if (size == 0)
+			return null;
+		int leftSize = (size - 1) / 2;
+		BinaryNode left = this.build(elements, leftSize);
+		T e = elements.next();
+		if (e == null)
+			throw new IllegalArgumentException("Can't insert null");
+		BinaryNode node = new BinaryNode(e);
+		node.leftChild = left;
+		node.rightChild = this.build(elements, size - 1 - leftSize);
+		return node;
 	}
 
 	/*
@@ -159,36 +427,54 @@ public class BinarySearchTree<T extends Comparable<? super T>> implements
 		 * 2. Go to left child if insertElement is less than.
 		 * 3. Go to right child if insertElement is greater than.
 		 * 4. When the proper child is null, insert element.
-		 * 5. If insertElement is found as a duplicate, return false.
+		 * 5. If insertElement is found as a duplicate, return -1.
+		 * 
+		 * @return depth of the new node below this node, or -1 if duplicate
 		 */
-		public boolean getInsert(T o) {
+		public int getInsert(T o) {
 			if (o.compareTo(this.element) < 0) {
 
 				// o is less than the current element in the binary tree
-				if (this.leftChild != null)
-					return this.leftChild.getInsert(o);
+				if (this.leftChild != null) {
+					int depth = this.leftChild.getInsert(o);
+					return depth < 0 ? depth : depth + 1;
+				}
 
 				// add to tree
 				this.leftChild = new BinaryNode(o);
 				BinarySearchTree.this.size++;
-				return true;
+				return 1;
 			}
 
 			if (o.compareTo(this.element) > 0) {
 
 				// o is greater than the current element in the binary tree
-				if (this.rightChild != null)
-					return this.rightChild.getInsert(o);
+				if (this.rightChild != null) {
+					int depth = this.rightChild.getInsert(o);
+					return depth < 0 ? depth : depth + 1;
+				}
 
 				// add to tree
 				this.rightChild = new BinaryNode(o);
 				BinarySearchTree.this.size++;
-				return true;
+				return 1;
 
 			}
 
 			// o is a duplicate and the element is already in the binary tree
-			return false;
+			return -1;
+		}
+
+		/*
+		 * Returns the number of nodes in the subtree rooted at this node.
+		 */
+		public int countNodes() {
+			int count = 1;
+			if (this.leftChild != null)
+				count += this.leftChild.countNodes();
+			if (this.rightChild != null)
+				count += this.rightChild.countNodes();
+			return count;
 		}
 
 		/*
@@ -209,7 +495,7 @@ public class BinarySearchTree<T extends Comparable<? super T>> implements
 				if (this.rightChild != null)
 					this.rightChild = this.rightChild.getRemove(b, e);
 				else
-					return null;
+					return this;
 			}
 
 			else if (this.element.compareTo(e) > 0) {
@@ -217,7 +503,7 @@ public class BinarySearchTree<T extends Comparable<? super T>> implements
 				if (this.leftChild != null)
 					this.leftChild = this.leftChild.getRemove(b, e);
 				else
-					return null;
+					return this;
 			}
 
 			else {
@@ -266,6 +552,8 @@ public class BinarySearchTree<T extends Comparable<? super T>> implements
 		Stack<BinaryNode> stack = new Stack<>();
 		BinaryNode lastNode;
 		int modifications = 0;
+		T to;
+		boolean toInclusive;
 
 		// Initialization of InOrderIterator
 		public LazyInOrderIterator(BinaryNode node) {
@@ -283,6 +571,31 @@ public class BinarySearchTree<T extends Comparable<? super T>> implements
 			}
 		}
 
+		/*
+		 * Initialization of an InOrderIterator that starts at from and stops
+		 * after to, where a null bound is open. Only the path down to the
+		 * first element goes on the stack, so going through k elements takes
+		 * O(log n + k) instead of starting at the smallest element.
+		 */
+		public LazyInOrderIterator(BinaryNode node, T from,
+				boolean fromInclusive, T to, boolean toInclusive) {
+			this.modifications = BinarySearchTree.this.modifcations;
+			this.lastNode = null;
+			this.to = to;
+			this.toInclusive = toInclusive;
+			while (node != null) {
+				int compared = from == null ? 1 : node.element.compareTo(from);
+				if (compared > 0 || (compared == 0 && fromInclusive)) {
+					// node is in range, so it comes after its left subtree
+					this.stack.push(node);
+					node = node.leftChild;
+				} else {
+					// node and its left subtree are all below from
+					node = node.rightChild;
+				}
+			}
+		}
+
 		/*
 		 * Checks if there exists a next element in the iterator. If there is,
 		 * return TRUE, else FALSE.
@@ -291,7 +604,12 @@ public class BinarySearchTree<T extends Comparable<? super T>> implements
 		 */
 		@Override
 		public boolean hasNext() {
-			return !this.stack.empty();
+			if (this.stack.empty())
+				return false;
+			if (this.to == null)
+				return true;
+			int compared = this.stack.peek().element.compareTo(this.to);
+			return compared < 0 || (compared == 0 && this.toInclusive);
 		}
 
 		/*
@@ -402,6 +720,186 @@ public class BinarySearchTree<T extends Comparable<? super T>> implements
 
 	}
 
+	/*
+	 * A view of the elements of the tree between two bounds, where a null
+	 * bound is open. Its iterator starts at the lower bound, so iterating
+	 * over k elements takes O(log n + k).
+	 */
+	public class SubSet implements Iterable<T> {
+		private T from;
+		private boolean fromInclusive;
+		private T to;
+		private boolean toInclusive;
+
+		// Initialization of SubSet
+		private SubSet(T from, boolean fromInclusive, T to, boolean toInclusive) {
+			this.from = from;
+			this.fromInclusive = fromInclusive;
+			this.to = to;
+			this.toInclusive = toInclusive;
+		}
+
+		/*
+		 * returns a lazy in-order iterator over the elements in the view
+		 */
+		@Override
+		public Iterator<T> iterator() {
+			return new LazyInOrderIterator(BinarySearchTree.this.root,
+					this.from, this.fromInclusive, this.to, this.toInclusive);
+		}
+
+		/*
+		 * Returns TRUE if there are no elements in the view and FALSE
+		 * otherwise
+		 */
+		public boolean isEmpty() {
+			return !this.iterator().hasNext();
+		}
+
+		/*
+		 * Returns the number of elements in the view. The tree does not keep
+		 * subtree sizes, so this counts them.
+		 */
+		public int size() {
+			int size = 0;
+			for (Iterator<T> i = this.iterator(); i.hasNext(); i.next())
+				size++;
+			return size;
+		}
+
+		/*
+		 * Places every element in the view into an ArrayList<T> in-order
+		 */
+		public ArrayList<T> toArrayList() {
+			ArrayList<T> output = new ArrayList<>();
+			for (T e : this)
+				output.add(e);
+			return output;
+		}
+
+		@Override
+		public String toString() {
+			return this.toArrayList().toString();
+		}
+	}
+
+	/*
+	 * An in-order spliterator. Like LazyInOrderIterator it keeps a stack of
+	 * nodes, each of which comes before its right subtree, and it may start
+	 * with a pending node that comes before all of them. Splitting hands off
+	 * every stack entry but the bottom one, which is a node and its right
+	 * subtree; from the root, that splits the tree at the root. A stack with
+	 * only one entry splits inside the right subtree of that node instead.
+	 */
+	private class LazySpliterator implements Spliterator<T> {
+		Stack<BinaryNode> stack;
+		BinaryNode pending;
+		int size;
+		boolean sized;
+		int modifications;
+
+		// Initialization of a LazySpliterator over the whole tree
+		private LazySpliterator() {
+			this.stack = new Stack<>();
+			this.pending = null;
+			this.size = BinarySearchTree.this.size;
+			this.sized = true;
+			this.modifications = BinarySearchTree.this.modifcations;
+			this.pushLeft(this.stack, BinarySearchTree.this.root);
+		}
+
+		// Initialization of a LazySpliterator split off from another one
+		private LazySpliterator(BinaryNode pending, Stack<BinaryNode> stack,
+				int size, int modifications) {
+			this.stack = stack;
+			this.pending = pending;
+			this.size = size;
+			this.sized = false;
+			this.modifications = modifications;
+		}
+
+		/*
+		 * Pushes the given node and all of its left children on the stack
+		 */
+		private void pushLeft(Stack<BinaryNode> stack, BinaryNode node) {
+			while (node != null) {
+				stack.push(node);
+				node = node.leftChild;
+			}
+		}
+
+		@Override
+		public boolean tryAdvance(Consumer<? super T> action) {
+			if (action == null)
+				throw new NullPointerException();
+			if (this.modifications != BinarySearchTree.this.modifcations)
+				throw new ConcurrentModificationException();
+			BinaryNode node = this.pending;
+			if (node != null) {
+				this.pending = null;
+			} else {
+				if (this.stack.empty())
+					return false;
+				node = this.stack.pop();
+				this.pushLeft(this.stack, node.rightChild);
+			}
+			if (this.size > 0)
+				this.size--;
+			action.accept(node.element);
+			return true;
+		}
+
+		@Override
+		public Spliterator<T> trySplit() {
+			Stack<BinaryNode> prefix = new Stack<>();
+			BinaryNode prefixPending = this.pending;
+			if (this.stack.size() >= 2) {
+				prefix.addAll(this.stack.subList(1, this.stack.size()));
+				this.stack.setSize(1);
+			} else if (this.stack.size() == 1 && this.pending == null) {
+				BinaryNode node = this.stack.peek();
+				BinaryNode right = node.rightChild;
+				if (right == null)
+					return null;
+				// node and the left subtree of right go, right and its right
+				// subtree stay
+				prefixPending = this.stack.pop();
+				this.stack.push(right);
+				this.pushLeft(prefix, right.leftChild);
+			} else if (this.stack.size() != 1) {
+				return null;
+			}
+			this.pending = null;
+			int prefixSize = this.size - this.size / 2;
+			this.size /= 2;
+			this.sized = false;
+			return new LazySpliterator(prefixPending, prefix, prefixSize,
+					this.modifications);
+		}
+
+		@Override
+		public long estimateSize() {
+			return this.size;
+		}
+
+		@Override
+		public int characteristics() {
+			int characteristics = Spliterator.ORDERED | Spliterator.SORTED
+					| Spliterator.DISTINCT | Spliterator.NONNULL;
+			if (this.sized)
+				characteristics |= Spliterator.SIZED;
+			return characteristics;
+		}
+
+		/*
+		 * Returns null, since the elements are in their natural order
+		 */
+		@Override
+		public Comparator<? super T> getComparator() {
+			return null;
+		}
+	}
+
 	public class MyBoolean {
 		private boolean value = false;
 
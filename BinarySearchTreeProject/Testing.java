@@ -1,7 +1,15 @@
 import static org.junit.Assert.*;
 
+import java.util.ArrayList;
 import java.util.ConcurrentModificationException;
 import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.SortedSet;
+import java.util.Spliterator;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
 
 import org.junit.AfterClass;
 import org.junit.Test;
@@ -489,6 +497,238 @@ public class Testing {
 		points += 2;
 	}
 	
+	@Test
+	public void testBuildFromSorted(){
+		BinarySearchTree<Integer> b = new BinarySearchTree<Integer>();
+		b.insert(42);
+		b.buildFromSorted(new Integer[] {});
+		assertTrue(b.isEmpty());
+		assertEquals(-1, b.height());
+		b.buildFromSorted(new Integer[] {1, 2, 3, 4, 5, 6, 7});
+		assertEquals("[1, 2, 3, 4, 5, 6, 7]", b.toString());
+		assertEquals(7, b.size());
+		assertEquals(2, b.height());
+		Iterator<Integer> i = b.preOrderIterator();
+		assertEquals(4, (int) i.next());
+		assertEquals(2, (int) i.next());
+		
+		Integer[] elements = new Integer[1000];
+		for (int k = 0; k < elements.length; k++)
+			elements[k] = 2 * k;
+		b.buildFromSorted(elements);
+		assertEquals(1000, b.size());
+		assertEquals(9, b.height());
+		assertTrue(b.insert(7));
+		assertFalse(b.insert(8));
+		assertTrue(b.remove(500));
+		assertEquals(1000, b.size());
+		
+		final int n = 1000000;
+		b.buildFromSorted(new Iterator<Integer>(){
+			int next = 0;
+			public boolean hasNext(){
+				return this.next < n;
+			}
+			public Integer next(){
+				return this.next++;
+			}
+			public void remove(){
+				throw new UnsupportedOperationException();
+			}
+		}, n);
+		assertEquals(n, b.size());
+		assertEquals(19, b.height());
+		int expected = 0;
+		for (int e : b)
+			assertEquals(expected++, e);
+		
+		try {
+			b.buildFromSorted(new Integer[] {1, null, 3});
+			fail("Did not throw IllegalArgumentException");
+		} catch (IllegalArgumentException e){
+			// Pass
+		}
+	}
+	
+	@Test
+	public void testInsertSortedStaysBalanced(){
+		BinarySearchTree<Integer> b = new BinarySearchTree<Integer>();
+		int n = 200000;
+		for (int k = 0; k < n; k++){
+			assertTrue(b.insert(k));
+			if (k % 1000 == 999)
+				assertTrue(b.height() <= 2 * Math.log(k + 1) / Math.log(2) + 1);
+		}
+		assertEquals(n, b.size());
+		for (int k = 2 * n; k > n; k--)
+			assertTrue(b.insert(k));
+		assertTrue(b.height() <= 2 * Math.log(b.size()) / Math.log(2) + 1);
+		int expected = 0;
+		for (int e : b){
+			assertEquals(expected, e);
+			expected += expected == n - 1 ? 2 : 1;
+		}
+		assertFalse(b.insert(12345));
+		assertTrue(b.remove(12345));
+		assertEquals(2 * n - 1, b.size());
+	}
+	
+	@Test
+	public void testRebalance(){
+		BinarySearchTree<Integer> b = new BinarySearchTree<Integer>();
+		b.rebalance();
+		assertTrue(b.isEmpty());
+		b.insert(3);
+		b.insert(1);
+		b.insert(2);
+		b.rebalance();
+		assertEquals("[1, 2, 3]", b.toString());
+		assertEquals(1, b.height());
+		
+		Random rand = new Random(230);
+		for (int k = 0; k < 5000; k++)
+			b.insert(rand.nextInt(100000));
+		String before = b.toString();
+		Iterator<Integer> i = b.iterator();
+		b.rebalance();
+		assertEquals(before, b.toString());
+		assertEquals(31 - Integer.numberOfLeadingZeros(b.size()), b.height());
+		try {
+			i.next();
+			i.remove();
+			fail("Did not throw ConcurrentModificationException");
+		} catch (ConcurrentModificationException e){
+			// Pass
+		}
+	}
+	
+	@Test
+	public void testFloorCeilingLowerHigher(){
+		BinarySearchTree<Integer> b = new BinarySearchTree<Integer>();
+		assertNull(b.floor(5));
+		assertNull(b.ceiling(5));
+		assertNull(b.lower(5));
+		assertNull(b.higher(5));
+		try {
+			b.floor(null);
+			fail("Did not throw IllegalArgumentException");
+		} catch (IllegalArgumentException e){
+			// Pass
+		}
+		
+		Random rand = new Random(220);
+		TreeSet<Integer> expected = new TreeSet<Integer>();
+		for (int k = 0; k < 2000; k++){
+			int e = 2 * rand.nextInt(1000);
+			if (rand.nextInt(3) == 0)
+				assertEquals(expected.remove(e), b.remove(e));
+			else
+				assertEquals(expected.add(e), b.insert(e));
+		}
+		for (int e = -1; e <= 2000; e++){
+			assertEquals(expected.floor(e), b.floor(e));
+			assertEquals(expected.ceiling(e), b.ceiling(e));
+			assertEquals(expected.lower(e), b.lower(e));
+			assertEquals(expected.higher(e), b.higher(e));
+		}
+	}
+	
+	@Test
+	public void testRangeViews(){
+		BinarySearchTree<Integer> b = new BinarySearchTree<Integer>();
+		assertEquals(0, b.subSet(1, 5).size());
+		assertFalse(b.tailSet(1).iterator().hasNext());
+		try {
+			b.subSet(5, 1);
+			fail("Did not throw IllegalArgumentException");
+		} catch (IllegalArgumentException e){
+			// Pass
+		}
+		
+		Random rand = new Random(230);
+		TreeSet<Integer> expected = new TreeSet<Integer>();
+		for (int k = 0; k < 1000; k++){
+			int e = 2 * rand.nextInt(500);
+			expected.add(e);
+			b.insert(e);
+		}
+		for (int k = 0; k < 200; k++){
+			int from = rand.nextInt(1002) - 1;
+			int to = from + rand.nextInt(1002 - from);
+			boolean fromInclusive = rand.nextBoolean();
+			boolean toInclusive = rand.nextBoolean();
+			assertRange(expected.subSet(from, fromInclusive, to, toInclusive),
+					b.subSet(from, fromInclusive, to, toInclusive));
+			assertRange(expected.subSet(from, to), b.subSet(from, to));
+			assertRange(expected.headSet(to), b.headSet(to));
+			assertRange(expected.tailSet(from), b.tailSet(from));
+		}
+		
+		BinarySearchTree<Integer>.SubSet view = b.subSet(100, 200);
+		int before = view.size();
+		b.insert(151);
+		assertEquals(before + 1, view.size());
+		b.remove(151);
+		assertEquals(before, view.size());
+	}
+	
+	private static void assertRange(SortedSet<Integer> expected,
+			BinarySearchTree<Integer>.SubSet actual){
+		assertEquals(expected.size(), actual.size());
+		assertEquals(expected.isEmpty(), actual.isEmpty());
+		Iterator<Integer> i = actual.iterator();
+		for (Integer e : expected){
+			assertTrue(i.hasNext());
+			assertEquals(e, i.next());
+		}
+		assertFalse(i.hasNext());
+	}
+	
+	@Test
+	public void testSpliterator(){
+		BinarySearchTree<Integer> b = new BinarySearchTree<Integer>();
+		assertFalse(b.spliterator().tryAdvance(e -> fail()));
+		assertNull(b.spliterator().trySplit());
+		
+		Random rand = new Random(240);
+		TreeSet<Integer> expected = new TreeSet<Integer>();
+		for (int k = 0; k < 3000; k++){
+			int e = rand.nextInt(5000);
+			expected.add(e);
+			b.insert(e);
+		}
+		Spliterator<Integer> s = b.spliterator();
+		assertTrue(s.hasCharacteristics(Spliterator.SORTED | Spliterator.DISTINCT
+				| Spliterator.SIZED));
+		assertEquals(expected.size(), s.getExactSizeIfKnown());
+		ArrayList<Integer> actual = new ArrayList<Integer>();
+		splitAll(s, actual);
+		assertEquals(new ArrayList<Integer>(expected), actual);
+		
+		List<Integer> parallel = StreamSupport.stream(b.spliterator(), true)
+				.collect(Collectors.toList());
+		assertEquals(new ArrayList<Integer>(expected), parallel);
+		assertEquals(expected.stream().mapToLong(e -> e).sum(),
+				StreamSupport.stream(b.spliterator(), true)
+						.mapToLong(e -> e).sum());
+	}
+	
+	/*
+	 * Splits the spliterator as far as it goes, depth first, and adds the
+	 * elements of every part to the list in order.
+	 */
+	private static void splitAll(Spliterator<Integer> s, List<Integer> list){
+		Spliterator<Integer> prefix = s.trySplit();
+		if (prefix == null){
+			long size = s.estimateSize();
+			int before = list.size();
+			s.forEachRemaining(e -> list.add(e));
+			return;
+		}
+		splitAll(prefix, list);
+		splitAll(s, list);
+	}
+	
 	@AfterClass
 	public static void testNothing(){
 		System.out.println("Points: " + points);
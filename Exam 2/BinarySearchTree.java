@@ -63,18 +63,20 @@ public class BinarySearchTree<T extends Comparable<? super T>> implements
 	 *         if there is no such element
 	 */
 	public T floor(T e) {
-		// TODO: implement this method
-		ArrayList<T> t = this.toArrayList();
-		T previous = null;
-		for (int i = 0; i < t.size(); i++) {
-			if (t.get(i) == e)
-				return t.get(i);
-			if (t.get(i).compareTo(e) > 0)
-				return previous;
-			previous = t.get(i);
+		T floor = null;
+		BinaryNode current = root;
+		while (current != null) {
+			int compared = e.compareTo(current.element);
+			if (compared == 0)
+				return current.element;
+			if (compared < 0) {
+				current = current.leftChild;
+			} else {
+				floor = current.element;
+				current = current.rightChild;
+			}
 		}
-		return previous;
-
+		return floor;
 	}
 
 	/**
@@ -0,0 +1,122 @@
+/**
+ * A binary PriorityQueue laid out as a B-heap, so that moving an element up
+ * or down the heap touches few memory pages. In the usual layout the
+ * children of index i sit at 2i + 1 and 2i + 2, so below the first few
+ * levels every step down lands on a different page.
+ * 
+ * Here the array is cut into pages of 2^h - 1 slots, and every page holds a
+ * complete subtree h levels deep. A step within a page stays on the page,
+ * and a sift from the root to a leaf only changes page once every h levels.
+ * The leaves of a page have their children at the roots of other pages: the
+ * pages form a tree of their own in which every page has 2^h child pages,
+ * numbered like a 2^h-ary heap. Children always sit at higher indices than
+ * their parents, so every prefix of the array is a valid tree and the last
+ * element is always a leaf, which is all PriorityQueue needs.
+ * 
+ * Only the array of references is laid out this way. The elements
+ * themselves are objects elsewhere on the heap, so comparisons can still
+ * touch other pages.
+ * 
+ * @author derrowap
+ * 
+ * @param <E>
+ *            - the type of elements stored
+ */
+public class BHeapPriorityQueue<E extends Comparable<? super E>> extends
+		PriorityQueue<E> {
+	private static final long serialVersionUID = 1L;
+	private final int levels;
+	private final int pageSize;
+	private final int firstLeaf;
+
+	/**
+	 * Constructs a BHeapPriorityQueue with pages of 1023 slots, which is 4 KB
+	 * of references when references are 4 bytes.
+	 */
+	public BHeapPriorityQueue() {
+		this(10);
+	}
+
+	/**
+	 * Constructs a BHeapPriorityQueue whose pages hold subtrees with the
+	 * specified number of levels.
+	 * 
+	 * @param levels
+	 *            - the number of levels in every page, from 2 to 20
+	 * 
+	 * @throws IllegalArgumentException
+	 *             - if levels is less than 2 or more than 20
+	 */
+	public BHeapPriorityQueue(int levels) {
+		super(2);
+		if (levels < 2 || levels > 20)
+			throw new IllegalArgumentException("Levels must be from 2 to 20");
+		this.levels = levels;
+		this.pageSize = (1 << levels) - 1;
+		this.firstLeaf = (1 << (levels - 1)) - 1;
+	}
+
+	/**
+	 * Returns the number of slots in every page.
+	 * 
+	 * @return the number of slots in every page
+	 */
+	public int getPageSize() {
+		return this.pageSize;
+	}
+
+	/**
+	 * Returns the index of the parent of the element at the specified index.
+	 * Within a page this is the usual binary heap parent. The parent of a
+	 * page's root is the leaf of the parent page that the page hangs from.
+	 * 
+	 * @param index
+	 *            - index of an element other than the root
+	 * 
+	 * @return index of its parent
+	 */
+	protected int parent(int index) {
+		int page = index / this.pageSize;
+		int offset = index - page * this.pageSize;
+		if (offset > 0)
+			return page * this.pageSize + (offset - 1) / 2;
+		int childPage = page - 1;
+		int parentPage = childPage >>> this.levels;
+		int leaf = (childPage & ((1 << this.levels) - 1)) >>> 1;
+		return parentPage * this.pageSize + this.firstLeaf + leaf;
+	}
+
+	/**
+	 * Returns the index the specified child of an element would sit at.
+	 * Within a page this is the usual binary heap child. The children of a
+	 * page's leaves are the roots of its child pages.
+	 * 
+	 * @param index
+	 *            - index of the parent element
+	 * @param n
+	 *            - 0 for the left child, 1 for the right child
+	 * 
+	 * @return index of the child, or Integer.MAX_VALUE if it is past the
+	 *         largest possible index
+	 */
+	protected int child(int index, int n) {
+		int page = index / this.pageSize;
+		int offset = index - page * this.pageSize;
+		if (offset < this.firstLeaf)
+			return index + offset + 1 + n;
+		long childPage = ((long) page << this.levels) + 1 + 2
+				* (offset - this.firstLeaf) + n;
+		return (int) Math.min(childPage * this.pageSize, Integer.MAX_VALUE);
+	}
+
+	/**
+	 * Returns an index at least as large as that of the last element with a
+	 * child. Parents are not in index order across pages, so this is just the
+	 * last index, and heapify also visits the leaves.
+	 * 
+	 * @return the last index
+	 */
+	protected int lastParent() {
+		return super.size() - 1;
+	}
+}
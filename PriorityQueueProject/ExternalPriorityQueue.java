@@ -0,0 +1,474 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * A Priority Queue that holds more elements than fit in memory. At most a
+ * fixed number of elements are kept in an in-memory PriorityQueue. When it
+ * is full, its elements are sorted and written to a file as a run, and the
+ * in-memory queue starts over empty.
+ * 
+ * Every run keeps its smallest unread element in memory, and the runs are
+ * kept in a PriorityQueue of their own ordered by that element, so the
+ * runs are merged k ways as they are polled. poll returns the smaller of
+ * the in-memory head and the head of the first run. Runs are read and
+ * written through buffered file channels and deleted once they are used up.
+ * 
+ * Each open run holds a file channel and a buffer, so the number of runs is
+ * bounded by a merge factor (64 unless specified). When a spill would leave
+ * more runs than that, the merge factor runs with the fewest elements left
+ * are merged into one larger run. Always merging the smallest runs keeps the
+ * number of times an element is rewritten logarithmic in the number of runs.
+ * 
+ * @author derrowap
+ * 
+ * @param <E>
+ *            - the type of elements stored
+ */
+public class ExternalPriorityQueue<E extends Comparable<? super E> & Serializable>
+		implements Closeable {
+	/** Number of elements written between resets of an output stream. */
+	private static final int RESET_INTERVAL = 1024;
+	private static final int BUFFER_SIZE = 1 << 16;
+	private static final int DEFAULT_MERGE_FACTOR = 64;
+
+	private final int memoryLimit;
+	private final int mergeFactor;
+	private final Path directory;
+	private final boolean ownsDirectory;
+	private PriorityQueue<E> memory;
+	private PriorityQueue<Run> runs;
+	private long size;
+
+	/**
+	 * Constructs an empty ExternalPriorityQueue that writes its runs to a new
+	 * temporary directory. The directory is deleted when the queue is closed.
+	 * 
+	 * @param memoryLimit
+	 *            - the most elements kept in memory before a run is written
+	 * 
+	 * @throws IllegalArgumentException
+	 *             - if memoryLimit is less than 1
+	 * @throws UncheckedIOException
+	 *             - if the temporary directory can't be created
+	 */
+	public ExternalPriorityQueue(int memoryLimit) {
+		this(memoryLimit, createTempDirectory(), DEFAULT_MERGE_FACTOR, true);
+	}
+
+	/**
+	 * Constructs an empty ExternalPriorityQueue that writes its runs to the
+	 * specified directory. The directory itself is left in place when the
+	 * queue is closed.
+	 * 
+	 * @param memoryLimit
+	 *            - the most elements kept in memory before a run is written
+	 * @param directory
+	 *            - the directory to write runs to
+	 * 
+	 * @throws IllegalArgumentException
+	 *             - if memoryLimit is less than 1
+	 */
+	public ExternalPriorityQueue(int memoryLimit, Path directory) {
+		this(memoryLimit, directory, DEFAULT_MERGE_FACTOR, false);
+	}
+
+	/**
+	 * Constructs an empty ExternalPriorityQueue that writes its runs to the
+	 * specified directory and keeps at most mergeFactor runs open. The
+	 * directory itself is left in place when the queue is closed.
+	 * 
+	 * @param memoryLimit
+	 *            - the most elements kept in memory before a run is written
+	 * @param directory
+	 *            - the directory to write runs to
+	 * @param mergeFactor
+	 *            - the most runs kept open, and merged together at once
+	 * 
+	 * @throws IllegalArgumentException
+	 *             - if memoryLimit is less than 1 or mergeFactor is less
+	 *             than 2
+	 */
+	public ExternalPriorityQueue(int memoryLimit, Path directory,
+			int mergeFactor) {
+		this(memoryLimit, directory, mergeFactor, false);
+	}
+
+	/**
+	 * Constructs an empty ExternalPriorityQueue that writes its runs to the
+	 * specified directory.
+	 * 
+	 * @param memoryLimit
+	 *            - the most elements kept in memory before a run is written
+	 * @param directory
+	 *            - the directory to write runs to
+	 * @param mergeFactor
+	 *            - the most runs kept open, and merged together at once
+	 * @param ownsDirectory
+	 *            - whether close deletes the directory
+	 * 
+	 * @throws IllegalArgumentException
+	 *             - if memoryLimit is less than 1 or mergeFactor is less
+	 *             than 2
+	 */
+	private ExternalPriorityQueue(int memoryLimit, Path directory,
+			int mergeFactor, boolean ownsDirectory) {
+		if (memoryLimit < 1)
+			throw new IllegalArgumentException("Memory limit must be positive");
+		if (mergeFactor < 2)
+			throw new IllegalArgumentException(
+					"Merge factor must be at least 2");
+		this.memoryLimit = memoryLimit;
+		this.mergeFactor = mergeFactor;
+		this.directory = directory;
+		this.ownsDirectory = ownsDirectory;
+		this.memory = new PriorityQueue<E>();
+		this.runs = new PriorityQueue<Run>();
+		this.size = 0;
+	}
+
+	/**
+	 * Inserts the specified element into this priority queue. If the
+	 * in-memory queue is full, it is written out as a run first.
+	 * 
+	 * @param e
+	 *            - the element to add
+	 * 
+	 * @return true if inserted successfully
+	 * 
+	 * @throws NullPointerException
+	 *             - if the specified element is null
+	 * @throws UncheckedIOException
+	 *             - if the run can't be written
+	 */
+	public boolean add(E e) {
+		if (e == null)
+			throw new NullPointerException();
+		if (this.memory.size() >= this.memoryLimit)
+			this.spill();
+		this.memory.add(e);
+		this.size++;
+		return true;
+	}
+
+	/**
+	 * Inserts the specified element into this priority queue.
+	 * 
+	 * @param e
+	 *            - the element to add
+	 * 
+	 * @return true if inserted successfully
+	 * 
+	 * @throws NullPointerException
+	 *             - if the specified element is null
+	 * @throws UncheckedIOException
+	 *             - if the run can't be written
+	 */
+	public boolean offer(E e) {
+		return this.add(e);
+	}
+
+	/**
+	 * Retrieves, but does not remove, the head of this queue, or returns null
+	 * if this queue is empty.
+	 * 
+	 * @return the head of this queue, or null if this queue is empty
+	 */
+	public E peek() {
+		E e = this.memory.peek();
+		Run run = this.runs.peek();
+		if (run == null || (e != null && e.compareTo(run.head) <= 0))
+			return e;
+		return run.head;
+	}
+
+	/**
+	 * Retrieves and removes the head of this queue, or returns null if this
+	 * queue is empty.
+	 * 
+	 * @return the head of this queue, or null if this queue is empty
+	 * 
+	 * @throws UncheckedIOException
+	 *             - if the next element of a run can't be read
+	 */
+	public E poll() {
+		E e = this.memory.peek();
+		Run run = this.runs.peek();
+		if (run == null || (e != null && e.compareTo(run.head) <= 0)) {
+			if (e != null)
+				this.size--;
+			return this.memory.poll();
+		}
+		this.runs.poll();
+		E head = run.head;
+		if (run.advance())
+			this.runs.add(run);
+		this.size--;
+		return head;
+	}
+
+	/**
+	 * Returns TRUE if this queue has no elements and FALSE otherwise.
+	 * 
+	 * @return boolean if this queue is empty
+	 */
+	public boolean isEmpty() {
+		return this.size == 0;
+	}
+
+	/**
+	 * Returns the number of elements in this queue, both in memory and in
+	 * runs.
+	 * 
+	 * @return the number of elements in this queue
+	 */
+	public long size() {
+		return this.size;
+	}
+
+	/**
+	 * Returns the number of runs that still have elements left to read. This
+	 * is never more than the merge factor.
+	 * 
+	 * @return the number of runs
+	 */
+	public int runCount() {
+		return this.runs.size();
+	}
+
+	/**
+	 * Returns the directory this queue writes its runs to.
+	 * 
+	 * @return the directory of the runs
+	 */
+	Path getDirectory() {
+		return this.directory;
+	}
+
+	/**
+	 * Removes all of the elements from this queue and deletes its runs.
+	 * 
+	 * @throws UncheckedIOException
+	 *             - if a run can't be deleted
+	 */
+	public void clear() {
+		this.memory.clear();
+		while (!this.runs.isEmpty())
+			this.runs.poll().close();
+		this.size = 0;
+	}
+
+	/**
+	 * Removes all of the elements from this queue and deletes its runs. If
+	 * this queue created its own temporary directory, the directory is
+	 * deleted too.
+	 * 
+	 * @throws UncheckedIOException
+	 *             - if a run or the directory can't be deleted
+	 */
+	public void close() {
+		this.clear();
+		if (this.ownsDirectory) {
+			try {
+				Files.deleteIfExists(this.directory);
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}
+	}
+
+	/**
+	 * Sorts the in-memory elements, writes them to a new run and empties the
+	 * in-memory queue. If that leaves more runs than the merge factor, the
+	 * smallest runs are merged first.
+	 */
+	private void spill() {
+		Object[] sorted = this.memory.toArray();
+		Arrays.sort(sorted);
+		try {
+			Path file = Files.createTempFile(this.directory, "run", ".tmp");
+			try (ObjectOutputStream out = openOutput(file)) {
+				for (int i = 0; i < sorted.length; i++) {
+					out.writeObject(sorted[i]);
+					if (i % RESET_INTERVAL == RESET_INTERVAL - 1)
+						out.reset(); // forget written objects to save memory
+				}
+			}
+			Run run = new Run(file, sorted.length);
+			if (run.advance())
+				this.runs.add(run);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		this.memory.clear();
+		if (this.runs.size() > this.mergeFactor)
+			this.mergeSmallest();
+	}
+
+	/**
+	 * Merges the merge factor runs with the fewest elements left into one new
+	 * run. The merged runs are deleted as they are used up.
+	 * 
+	 * @throws UncheckedIOException
+	 *             - if a run can't be read or the new run can't be written
+	 */
+	private void mergeSmallest() {
+		Object[] all = this.runs.toArray();
+		Arrays.sort(all, new Comparator<Object>() {
+			@SuppressWarnings("unchecked")
+			@Override
+			public int compare(Object a, Object b) {
+				return Long.compare(((Run) a).remaining, ((Run) b).remaining);
+			}
+		});
+		PriorityQueue<Run> merging = new PriorityQueue<Run>();
+		long count = 0;
+		for (int i = 0; i < this.mergeFactor; i++) {
+			@SuppressWarnings("unchecked")
+			Run run = (Run) all[i];
+			this.runs.remove(run);
+			merging.add(run);
+			count += run.remaining + 1; // the head is already read
+		}
+		try {
+			Path file = Files.createTempFile(this.directory, "run", ".tmp");
+			try (ObjectOutputStream out = openOutput(file)) {
+				for (long i = 0; !merging.isEmpty(); i++) {
+					Run run = merging.poll();
+					out.writeObject(run.head);
+					if (i % RESET_INTERVAL == RESET_INTERVAL - 1)
+						out.reset(); // forget written objects to save memory
+					if (run.advance())
+						merging.add(run);
+				}
+			}
+			Run run = new Run(file, count);
+			if (run.advance())
+				this.runs.add(run);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * Opens a buffered object stream that writes to the specified file.
+	 * 
+	 * @param file
+	 *            - the file to write to
+	 * 
+	 * @return the stream
+	 * 
+	 * @throws IOException
+	 *             - if the file can't be opened
+	 */
+	private static ObjectOutputStream openOutput(Path file) throws IOException {
+		FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE);
+		return new ObjectOutputStream(new BufferedOutputStream(
+				Channels.newOutputStream(channel), BUFFER_SIZE));
+	}
+
+	/**
+	 * Creates a new temporary directory for runs.
+	 * 
+	 * @return the path of the directory
+	 */
+	private static Path createTempDirectory() {
+		try {
+			return Files.createTempDirectory("pq");
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * A sorted run written to a file, read back one element at a time. Runs
+	 * compare by their smallest unread element.
+	 * 
+	 * @author derrowap
+	 */
+	private class Run implements Comparable<Run> {
+		private Path file;
+		private ObjectInputStream in;
+		private long remaining;
+		private E head;
+
+		/**
+		 * Opens the run written to the specified file.
+		 * 
+		 * @param file
+		 *            - the file of the run
+		 * @param count
+		 *            - the number of elements in the run
+		 * 
+		 * @throws IOException
+		 *             - if the file can't be opened
+		 */
+		private Run(Path file, long count) throws IOException {
+			this.file = file;
+			this.in = new ObjectInputStream(new BufferedInputStream(
+					Channels.newInputStream(FileChannel.open(file,
+							StandardOpenOption.READ)), BUFFER_SIZE));
+			this.remaining = count;
+			this.head = null;
+		}
+
+		/**
+		 * Reads the next element of this run into head. Closes and deletes
+		 * the run once every element has been read.
+		 * 
+		 * @return true if there was another element
+		 * 
+		 * @throws UncheckedIOException
+		 *             - if the element can't be read
+		 */
+		@SuppressWarnings("unchecked")
+		private boolean advance() {
+			if (this.remaining == 0) {
+				this.close();
+				return false;
+			}
+			try {
+				this.head = (E) this.in.readObject();
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			} catch (ClassNotFoundException e) {
+				throw new IllegalStateException(e);
+			}
+			this.remaining--;
+			return true;
+		}
+
+		/**
+		 * Closes and deletes this run.
+		 * 
+		 * @throws UncheckedIOException
+		 *             - if the file can't be deleted
+		 */
+		private void close() {
+			this.head = null;
+			try {
+				this.in.close();
+				Files.deleteIfExists(this.file);
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}
+
+		@Override
+		public int compareTo(Run other) {
+			return this.head.compareTo(other.head);
+		}
+	}
+}
@@ -0,0 +1,253 @@
+import java.util.ArrayList;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A thread-safe, linearizable Priority Queue built on flat combining. Every
+ * thread has a slot where it publishes its request (add, poll or peek) and
+ * then waits. Whichever thread gets the combiner lock walks all the slots
+ * and applies every published request to a single PriorityQueue before
+ * letting the lock go, so the heap is touched by one thread at a time but
+ * the lock changes hands once per batch instead of once per request.
+ * 
+ * While combining, an add is paired with a waiting poll when the added
+ * element is no larger than the head of the heap: that element is exactly
+ * what the poll would have returned right after the add, so it is handed
+ * over without going through the heap at all.
+ * 
+ * @author derrowap
+ * 
+ * @param <E>
+ *            - the type of elements stored
+ */
+public class FlatCombiningPriorityQueue<E extends Comparable<? super E>> {
+	/** Most times the combiner walks the slots before giving up the lock. */
+	private static final int PASSES = 3;
+
+	private static final int NONE = 0;
+	private static final int ADD = 1;
+	private static final int POLL = 2;
+	private static final int PEEK = 3;
+
+	private PriorityQueue<E> heap;
+	private ReentrantLock lock;
+	private AtomicReference<Slot<E>> slots;
+	private ThreadLocal<Slot<E>> slot;
+	private ArrayList<Slot<E>> polls;
+	private volatile int size;
+
+	/**
+	 * Constructs an empty FlatCombiningPriorityQueue.
+	 */
+	public FlatCombiningPriorityQueue() {
+		this.heap = new PriorityQueue<E>();
+		this.lock = new ReentrantLock();
+		this.slots = new AtomicReference<>(null);
+		this.slot = new ThreadLocal<Slot<E>>() {
+			@Override
+			protected Slot<E> initialValue() {
+				return FlatCombiningPriorityQueue.this.register();
+			}
+		};
+		this.polls = new ArrayList<>();
+		this.size = 0;
+	}
+
+	/**
+	 * Inserts the specified element into this priority queue.
+	 * 
+	 * @param e
+	 *            - the element to add
+	 * 
+	 * @return true if inserted successfully
+	 * 
+	 * @throws NullPointerException
+	 *             - if the specified element is null
+	 */
+	public boolean add(E e) {
+		if (e == null)
+			throw new NullPointerException();
+		this.request(ADD, e);
+		return true;
+	}
+
+	/**
+	 * Inserts the specified element into this priority queue.
+	 * 
+	 * @param e
+	 *            - the element to add
+	 * 
+	 * @return true if inserted successfully
+	 * 
+	 * @throws NullPointerException
+	 *             - if the specified element is null
+	 */
+	public boolean offer(E e) {
+		return this.add(e);
+	}
+
+	/**
+	 * Retrieves and removes the head of this queue, or returns null if this
+	 * queue is empty.
+	 * 
+	 * @return the head of this queue, or null if this queue is empty
+	 */
+	public E poll() {
+		return this.request(POLL, null);
+	}
+
+	/**
+	 * Retrieves, but does not remove, the head of this queue, or returns null
+	 * if this queue is empty.
+	 * 
+	 * @return the head of this queue, or null if this queue is empty
+	 */
+	public E peek() {
+		return this.request(PEEK, null);
+	}
+
+	/**
+	 * Returns the number of elements in this queue after the last batch of
+	 * requests was applied.
+	 * 
+	 * @return the number of elements in this queue
+	 */
+	public int size() {
+		return this.size;
+	}
+
+	/**
+	 * Returns TRUE if this queue had no elements after the last batch of
+	 * requests was applied and FALSE otherwise.
+	 * 
+	 * @return boolean if this queue is empty
+	 */
+	public boolean isEmpty() {
+		return this.size == 0;
+	}
+
+	/**
+	 * Publishes a request in the calling thread's slot and waits until some
+	 * thread, possibly this one, has applied it.
+	 * 
+	 * @param request
+	 *            - ADD, POLL or PEEK
+	 * @param e
+	 *            - the element to add, or null
+	 * 
+	 * @return the result of the request
+	 */
+	private E request(int request, E e) {
+		Slot<E> mine = this.slot.get();
+		mine.item = e;
+		mine.request = request; // publishes item
+		while (mine.request != NONE) {
+			if (this.lock.tryLock()) {
+				try {
+					this.combine();
+				} finally {
+					this.lock.unlock();
+				}
+			} else {
+				Thread.yield();
+			}
+		}
+		E result = mine.item;
+		mine.item = null;
+		return result;
+	}
+
+	/**
+	 * Applies every published request to the heap. Peeks are answered first,
+	 * then each add is either paired with a waiting poll or added to the
+	 * heap, and the polls left over are taken from the heap. The caller must
+	 * hold the combiner lock.
+	 */
+	private void combine() {
+		for (int pass = 0; pass < PASSES; pass++) {
+			boolean found = false;
+			this.polls.clear();
+			for (Slot<E> s = this.slots.get(); s != null; s = s.next) {
+				int request = s.request;
+				if (request == POLL) {
+					this.polls.add(s);
+					found = true;
+				} else if (request == PEEK) {
+					this.complete(s, this.heap.peek());
+					found = true;
+				}
+			}
+			int matched = 0;
+			for (Slot<E> s = this.slots.get(); s != null; s = s.next) {
+				if (s.request != ADD)
+					continue;
+				found = true;
+				E e = s.item;
+				E head = this.heap.peek();
+				if (matched < this.polls.size()
+						&& (head == null || e.compareTo(head) <= 0))
+					this.complete(this.polls.get(matched++), e);
+				else
+					this.heap.add(e);
+				this.complete(s, null);
+			}
+			for (int i = matched; i < this.polls.size(); i++)
+				this.complete(this.polls.get(i), this.heap.poll());
+			this.size = this.heap.size();
+			if (!found)
+				return;
+		}
+	}
+
+	/**
+	 * Hands a result to a slot and marks its request as done.
+	 * 
+	 * @param s
+	 *            - the slot
+	 * @param result
+	 *            - the result of its request
+	 */
+	private void complete(Slot<E> s, E result) {
+		s.item = result;
+		s.request = NONE; // publishes item
+	}
+
+	/**
+	 * Creates a slot for the calling thread and pushes it onto the list of
+	 * slots. Slots are never removed.
+	 * 
+	 * @return the new slot
+	 */
+	private Slot<E> register() {
+		Slot<E> s = new Slot<>();
+		do {
+			s.next = this.slots.get();
+		} while (!this.slots.compareAndSet(s.next, s));
+		return s;
+	}
+
+	/**
+	 * One thread's published request. item holds the element to add while
+	 * the request is pending and the result once it is done; it is only read
+	 * after request has been read, which makes it visible.
+	 * 
+	 * @author derrowap
+	 * 
+	 * @param <E>
+	 *            - the type of elements stored
+	 */
+	private static class Slot<E> {
+		private volatile int request;
+		private E item;
+		private Slot<E> next;
+
+		/**
+		 * Constructs an empty Slot.
+		 */
+		private Slot() {
+			this.request = NONE;
+			this.item = null;
+			this.next = null;
+		}
+	}
+}
@@ -0,0 +1,254 @@
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * A Priority Queue of int keys stored in a plain int[] binary heap, so keys
+ * are never boxed and adding or polling never allocates once the array is
+ * large enough. Each key may carry an int payload, kept in a parallel array
+ * that is only allocated once the first payload is added.
+ * 
+ * @author derrowap
+ */
+public class IntPriorityQueue {
+	private int[] keys;
+	private int[] payloads;
+	private int size;
+
+	/**
+	 * Constructs an empty IntPriorityQueue.
+	 */
+	public IntPriorityQueue() {
+		this(16);
+	}
+
+	/**
+	 * Constructs an empty IntPriorityQueue that can hold the specified number
+	 * of keys before it needs to grow.
+	 * 
+	 * @param initialCapacity
+	 *            - the number of keys to make room for
+	 * 
+	 * @throws IllegalArgumentException
+	 *             - if initialCapacity is negative
+	 */
+	public IntPriorityQueue(int initialCapacity) {
+		if (initialCapacity < 0)
+			throw new IllegalArgumentException("Negative capacity");
+		this.keys = new int[Math.max(initialCapacity, 1)];
+		this.payloads = null;
+		this.size = 0;
+	}
+
+	/**
+	 * Inserts the specified key into this priority queue.
+	 * 
+	 * @param key
+	 *            - the key to add
+	 * 
+	 * @return true
+	 */
+	public boolean add(int key) {
+		this.grow();
+		this.addBalance(this.size++, key, 0);
+		return true;
+	}
+
+	/**
+	 * Inserts the specified key with a payload into this priority queue.
+	 * 
+	 * @param key
+	 *            - the key to add
+	 * @param payload
+	 *            - the payload stored with the key
+	 * 
+	 * @return true
+	 */
+	public boolean add(int key, int payload) {
+		if (this.payloads == null)
+			this.payloads = new int[this.keys.length];
+		this.grow();
+		this.addBalance(this.size++, key, payload);
+		return true;
+	}
+
+	/**
+	 * Inserts the specified key into this priority queue.
+	 * 
+	 * @param key
+	 *            - the key to add
+	 * 
+	 * @return true
+	 */
+	public boolean offer(int key) {
+		return this.add(key);
+	}
+
+	/**
+	 * Retrieves, but does not remove, the smallest key of this queue.
+	 * 
+	 * @return the smallest key of this queue
+	 * 
+	 * @throws NoSuchElementException
+	 *             - if this queue is empty
+	 */
+	public int peek() {
+		if (this.size == 0)
+			throw new NoSuchElementException();
+		return this.keys[0];
+	}
+
+	/**
+	 * Retrieves, but does not remove, the payload of the smallest key of this
+	 * queue. Keys added without a payload have a payload of 0.
+	 * 
+	 * @return the payload of the smallest key of this queue
+	 * 
+	 * @throws NoSuchElementException
+	 *             - if this queue is empty
+	 */
+	public int peekPayload() {
+		if (this.size == 0)
+			throw new NoSuchElementException();
+		return this.payloads == null ? 0 : this.payloads[0];
+	}
+
+	/**
+	 * Retrieves and removes the smallest key of this queue.
+	 * 
+	 * @return the smallest key of this queue
+	 * 
+	 * @throws NoSuchElementException
+	 *             - if this queue is empty
+	 */
+	public int poll() {
+		int key = this.peek();
+		this.removeRoot();
+		return key;
+	}
+
+	/**
+	 * Removes the smallest key of this queue and returns its payload.
+	 * 
+	 * @return the payload of the smallest key of this queue
+	 * 
+	 * @throws NoSuchElementException
+	 *             - if this queue is empty
+	 */
+	public int pollPayload() {
+		int payload = this.peekPayload();
+		this.removeRoot();
+		return payload;
+	}
+
+	/**
+	 * Removes all of the keys from this priority queue.
+	 */
+	public void clear() {
+		this.size = 0;
+	}
+
+	/**
+	 * Returns TRUE if this queue has no keys and FALSE otherwise.
+	 * 
+	 * @return boolean if this queue is empty
+	 */
+	public boolean isEmpty() {
+		return this.size == 0;
+	}
+
+	/**
+	 * Returns the number of keys in this priority queue.
+	 * 
+	 * @return the number of keys in this priority queue
+	 */
+	public int size() {
+		return this.size;
+	}
+
+	/**
+	 * Returns an array containing all of the keys in this queue, in the order
+	 * they are stored in the heap.
+	 * 
+	 * @return an array containing all of the keys in this queue
+	 */
+	public int[] toArray() {
+		return Arrays.copyOf(this.keys, this.size);
+	}
+
+	/**
+	 * Doubles the length of the backing arrays if they are full.
+	 */
+	private void grow() {
+		if (this.size < this.keys.length)
+			return;
+		int length = this.keys.length * 2;
+		this.keys = Arrays.copyOf(this.keys, length);
+		if (this.payloads != null)
+			this.payloads = Arrays.copyOf(this.payloads, length);
+	}
+
+	/**
+	 * Moves the last key into the root and moves it down to where it belongs.
+	 */
+	private void removeRoot() {
+		this.size--;
+		if (this.size > 0)
+			this.removeBalance(0, this.keys[this.size],
+					this.payloads == null ? 0 : this.payloads[this.size]);
+	}
+
+	/**
+	 * Moves parents down while they are larger than the specified key, then
+	 * stores the key and its payload in the hole that is left.
+	 * 
+	 * @param index
+	 *            - index of the hole to start from
+	 * @param key
+	 *            - the key to place
+	 * @param payload
+	 *            - the payload of the key
+	 */
+	private void addBalance(int index, int key, int payload) {
+		while (index > 0) {
+			int parent = (index - 1) >>> 1;
+			if (this.keys[parent] <= key)
+				break;
+			this.keys[index] = this.keys[parent];
+			if (this.payloads != null)
+				this.payloads[index] = this.payloads[parent];
+			index = parent;
+		}
+		this.keys[index] = key;
+		if (this.payloads != null)
+			this.payloads[index] = payload;
+	}
+
+	/**
+	 * Moves the smallest child up while it is smaller than the specified key,
+	 * then stores the key and its payload in the hole that is left.
+	 * 
+	 * @param index
+	 *            - index of the hole to start from
+	 * @param key
+	 *            - the key to place
+	 * @param payload
+	 *            - the payload of the key
+	 */
+	private void removeBalance(int index, int key, int payload) {
+		int half = this.size >>> 1;
+		while (index < half) {
+			int child = 2 * index + 1;
+			if (child + 1 < this.size && this.keys[child + 1] < this.keys[child])
+				child++;
+			if (key <= this.keys[child])
+				break;
+			this.keys[index] = this.keys[child];
+			if (this.payloads != null)
+				this.payloads[index] = this.payloads[child];
+			index = child;
+		}
+		this.keys[index] = key;
+		if (this.payloads != null)
+			this.payloads[index] = payload;
+	}
+}
@@ -0,0 +1,372 @@
+import java.util.ArrayList;
+import java.util.Collection;
+
+/**
+ * A double-ended Priority Queue stored as a min-max heap. Elements on even
+ * levels of the heap (the root is on level 0) are smaller than everything
+ * below them, and elements on odd levels are larger than everything below
+ * them. The smallest element is therefore the root and the largest is one
+ * of its two children, so both ends can be peeked in O(1) and polled in
+ * O(log n).
+ * 
+ * @author derrowap
+ * 
+ * @param <E>
+ *            - the type of elements stored
+ */
+public class MinMaxPriorityQueue<E extends Comparable<? super E>> extends
+		ArrayList<E> {
+	private static final long serialVersionUID = 1L;
+
+	public MinMaxPriorityQueue() {
+		super();
+	}
+
+	/**
+	 * Constructs a MinMaxPriorityQueue containing the elements of the
+	 * specified collection. The heap is built bottom-up in O(n).
+	 * 
+	 * @param c
+	 *            - the collection whose elements are to be placed into this
+	 *            priority queue
+	 * 
+	 * @throws NullPointerException
+	 *             - if any of the specified elements are null
+	 */
+	public MinMaxPriorityQueue(Collection<? extends E> c) {
+		super(c.size());
+		for (E e : c) {
+			if (e == null)
+				throw new NullPointerException();
+			super.add(e);
+		}
+		this.heapify();
+	}
+
+	/**
+	 * Inserts the specified element into this priority queue.
+	 * 
+	 * @param e
+	 *            - the element to add
+	 * 
+	 * @return true if inserted successfully
+	 * 
+	 * @throws NullPointerException
+	 *             - if the specified element is null
+	 */
+	public boolean add(E e) {
+		if (e == null)
+			throw new NullPointerException();
+		super.add(e);
+		this.addBalance(super.size() - 1);
+		return true;
+	}
+
+	/**
+	 * Inserts the specified element into this priority queue.
+	 * 
+	 * @param e
+	 *            - the element to add
+	 * 
+	 * @return true if inserted successfully
+	 * 
+	 * @throws NullPointerException
+	 *             - if the specified element is null
+	 */
+	public boolean offer(E e) {
+		return this.add(e);
+	}
+
+	/**
+	 * Inserts all of the elements in the specified collection into this
+	 * priority queue.
+	 * 
+	 * @param c
+	 *            - the collection containing elements to be added
+	 * 
+	 * @return true if this queue changed as a result of the call
+	 * 
+	 * @throws NullPointerException
+	 *             - if any of the specified elements are null
+	 * @throws IllegalArgumentException
+	 *             - if the collection is this queue
+	 */
+	public boolean addAll(Collection<? extends E> c) {
+		if (c == this)
+			throw new IllegalArgumentException("Can't add a queue to itself");
+		for (E e : c)
+			this.add(e);
+		return !c.isEmpty();
+	}
+
+	/**
+	 * Retrieves, but does not remove, the smallest element of this queue, or
+	 * returns null if this queue is empty.
+	 * 
+	 * @return the smallest element of this queue, or null if this queue is
+	 *         empty
+	 */
+	public E peek() {
+		if (super.isEmpty())
+			return null;
+		return super.get(0);
+	}
+
+	/**
+	 * Retrieves and removes the smallest element of this queue, or returns
+	 * null if this queue is empty.
+	 * 
+	 * @return the smallest element of this queue, or null if this queue is
+	 *         empty
+	 */
+	public E poll() {
+		if (super.isEmpty())
+			return null;
+		return this.removeAt(0);
+	}
+
+	/**
+	 * Retrieves, but does not remove, the largest element of this queue, or
+	 * returns null if this queue is empty.
+	 * 
+	 * @return the largest element of this queue, or null if this queue is
+	 *         empty
+	 */
+	public E peekMax() {
+		if (super.isEmpty())
+			return null;
+		return super.get(this.maxIndex());
+	}
+
+	/**
+	 * Retrieves and removes the largest element of this queue, or returns
+	 * null if this queue is empty.
+	 * 
+	 * @return the largest element of this queue, or null if this queue is
+	 *         empty
+	 */
+	public E pollMax() {
+		if (super.isEmpty())
+			return null;
+		return this.removeAt(this.maxIndex());
+	}
+
+	/**
+	 * Removes a single instance of the specified element from this queue, if
+	 * it is present. Finding the element is a linear scan, and the heap is
+	 * then rebuilt in O(n): an element moved into the middle of a min-max heap
+	 * may belong on the other kind of level, which moving it up or down alone
+	 * can't fix.
+	 * 
+	 * @param o
+	 *            - element to be removed from this queue, if present
+	 * 
+	 * @return true if this queue changed as a result of the call
+	 */
+	public boolean remove(Object o) {
+		int index = super.indexOf(o);
+		if (index == -1)
+			return false;
+		E last = super.remove(super.size() - 1);
+		if (index < super.size()) {
+			super.set(index, last);
+			this.heapify();
+		}
+		return true;
+	}
+
+	/**
+	 * Returns the index of the largest element. The queue must not be empty.
+	 * 
+	 * @return index of the largest element
+	 */
+	private int maxIndex() {
+		if (super.size() == 1)
+			return 0;
+		if (super.size() == 2
+				|| super.get(1).compareTo(super.get(2)) >= 0)
+			return 1;
+		return 2;
+	}
+
+	/**
+	 * Removes the smallest or largest element, at the specified index, by
+	 * moving the last element into its place and moving it down. The last
+	 * element is never smaller than the root, so it always belongs on the
+	 * level it is moved to.
+	 * 
+	 * @param index
+	 *            - index of the element to remove, 0, 1 or 2
+	 * 
+	 * @return the removed element
+	 */
+	private E removeAt(int index) {
+		E removed = super.get(index);
+		E last = super.remove(super.size() - 1);
+		if (index < super.size()) {
+			super.set(index, last);
+			this.removeBalance(index);
+		}
+		return removed;
+	}
+
+	/**
+	 * Restores the heap order of every element by moving each parent down to
+	 * where it belongs, starting from the last parent and working back to the
+	 * root, in O(n).
+	 */
+	private void heapify() {
+		for (int i = super.size() / 2 - 1; i >= 0; i--)
+			this.removeBalance(i);
+	}
+
+	/**
+	 * Returns true if the specified index is on a min level of the heap.
+	 * 
+	 * @param index
+	 *            - index of an element
+	 * 
+	 * @return true if the index is on an even level
+	 */
+	private static boolean isMinLevel(int index) {
+		return ((31 - Integer.numberOfLeadingZeros(index + 1)) & 1) == 0;
+	}
+
+	/**
+	 * Moves the element at the specified index up to where it belongs. It is
+	 * first compared with its parent to find out whether it belongs among the
+	 * min levels or the max levels, and then moves up through grandparents on
+	 * those levels only.
+	 * 
+	 * @param index
+	 *            - index of element to check for balancing
+	 */
+	private void addBalance(int index) {
+		if (index == 0)
+			return;
+		int parent = (index - 1) / 2;
+		int order = super.get(index).compareTo(super.get(parent));
+		if (isMinLevel(index)) {
+			if (order > 0) {
+				this.swap(index, parent);
+				this.addBalance(parent, -1);
+			} else {
+				this.addBalance(index, 1);
+			}
+		} else {
+			if (order < 0) {
+				this.swap(index, parent);
+				this.addBalance(parent, 1);
+			} else {
+				this.addBalance(index, -1);
+			}
+		}
+	}
+
+	/**
+	 * Moves the element at the specified index up through its grandparents
+	 * while it is smaller than them (sign 1) or larger than them (sign -1).
+	 * 
+	 * @param index
+	 *            - index of element to move
+	 * @param sign
+	 *            - 1 on min levels, -1 on max levels
+	 */
+	private void addBalance(int index, int sign) {
+		E e = super.get(index);
+		while (index > 2) {
+			int grandParent = (index - 3) / 4;
+			E swap = super.get(grandParent);
+			if (this.compare(e, swap, sign) >= 0)
+				break; // Done
+			super.set(index, swap);
+			index = grandParent;
+		}
+		super.set(index, e);
+	}
+
+	/**
+	 * Moves the element at the specified index down to where it belongs. On
+	 * a min level it is swapped with the smallest of its children and
+	 * grandchildren while that is smaller, and on a max level with the
+	 * largest while that is larger. After a swap with a grandchild, the
+	 * element is swapped with its new parent as well if they are out of
+	 * order.
+	 * 
+	 * @param index
+	 *            - index of element to check for balancing
+	 */
+	private void removeBalance(int index) {
+		int sign = isMinLevel(index) ? 1 : -1;
+		while (2 * index + 1 < super.size()) {
+			int best = this.bestDescendant(index, sign);
+			E e = super.get(index);
+			E swap = super.get(best);
+			if (this.compare(swap, e, sign) >= 0)
+				break; // Done
+			this.swap(index, best);
+			if (best <= 2 * index + 2)
+				break; // Done
+			int parent = (best - 1) / 2;
+			if (this.compare(e, super.get(parent), sign) > 0)
+				this.swap(best, parent);
+			index = best;
+		}
+	}
+
+	/**
+	 * Returns the index of the smallest (sign 1) or largest (sign -1) of the
+	 * children and grandchildren of the specified index. The index must have
+	 * at least one child.
+	 * 
+	 * @param index
+	 *            - the index whose descendants are compared
+	 * @param sign
+	 *            - 1 to find the smallest, -1 to find the largest
+	 * 
+	 * @return index of the best child or grandchild
+	 */
+	private int bestDescendant(int index, int sign) {
+		int best = 2 * index + 1;
+		if (best + 1 < super.size()
+				&& this.compare(super.get(best + 1), super.get(best), sign) < 0)
+			best++;
+		int end = Math.min(4 * index + 7, super.size());
+		for (int grandChild = 4 * index + 3; grandChild < end; grandChild++)
+			if (this.compare(super.get(grandChild), super.get(best), sign) < 0)
+				best = grandChild;
+		return best;
+	}
+
+	/**
+	 * Compares two elements in the order of a min level (sign 1) or of a max
+	 * level (sign -1).
+	 * 
+	 * @param a
+	 *            - the first element
+	 * @param b
+	 *            - the second element
+	 * @param sign
+	 *            - 1 on min levels, -1 on max levels
+	 * 
+	 * @return a negative integer, zero, or a positive integer as a comes
+	 *         before, ties with, or comes after b
+	 */
+	private int compare(E a, E b, int sign) {
+		return sign > 0 ? a.compareTo(b) : b.compareTo(a);
+	}
+
+	/**
+	 * Swaps the elements at the specified indices.
+	 * 
+	 * @param i
+	 *            - index of the first element
+	 * @param j
+	 *            - index of the second element
+	 */
+	private void swap(int i, int j) {
+		E temp = super.get(i);
+		super.set(i, super.get(j));
+		super.set(j, temp);
+	}
+}
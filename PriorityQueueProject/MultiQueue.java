@@ -0,0 +1,210 @@
+import java.util.ArrayList;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A thread-safe priority queue with relaxed ordering, built from several
+ * PriorityQueues that each have their own lock.
+ * 
+ * add puts an element into a randomly chosen sub-queue. poll picks two
+ * sub-queues at random and takes the head of whichever has the smaller
+ * head. Both use tryLock and pick again when a lock is taken, so threads
+ * almost never wait on each other. The element returned by poll is not
+ * always the smallest in the queue, but it is close to it on average.
+ * 
+ * @author derrowap
+ * 
+ * @param <E>
+ *            - the type of elements stored
+ */
+public class MultiQueue<E extends Comparable<? super E>> {
+	private ArrayList<PriorityQueue<E>> queues;
+	private ReentrantLock[] locks;
+	private AtomicReferenceArray<E> heads;
+	private AtomicInteger size;
+
+	/**
+	 * Constructs a MultiQueue with two sub-queues per thread.
+	 * 
+	 * @param threads
+	 *            - the number of threads expected to use the queue
+	 */
+	public MultiQueue(int threads) {
+		this(threads, 2);
+	}
+
+	/**
+	 * Constructs a MultiQueue with c sub-queues per thread. More sub-queues
+	 * mean fewer lock collisions but a looser ordering.
+	 * 
+	 * @param threads
+	 *            - the number of threads expected to use the queue
+	 * @param c
+	 *            - the number of sub-queues per thread
+	 * 
+	 * @throws IllegalArgumentException
+	 *             - if threads or c is less than 1
+	 */
+	public MultiQueue(int threads, int c) {
+		if (threads < 1 || c < 1)
+			throw new IllegalArgumentException("Need at least one sub-queue");
+		int count = Math.max(2, threads * c);
+		this.queues = new ArrayList<>(count);
+		this.locks = new ReentrantLock[count];
+		for (int i = 0; i < count; i++) {
+			this.queues.add(new PriorityQueue<E>());
+			this.locks[i] = new ReentrantLock();
+		}
+		this.heads = new AtomicReferenceArray<>(count);
+		this.size = new AtomicInteger(0);
+	}
+
+	/**
+	 * Inserts the specified element into a randomly chosen sub-queue.
+	 * 
+	 * @param e
+	 *            - the element to add
+	 * 
+	 * @return true if inserted successfully
+	 * 
+	 * @throws NullPointerException
+	 *             - if the specified element is null
+	 */
+	public boolean add(E e) {
+		if (e == null)
+			throw new NullPointerException();
+		ThreadLocalRandom rand = ThreadLocalRandom.current();
+		while (true) {
+			int i = rand.nextInt(this.locks.length);
+			if (this.locks[i].tryLock()) {
+				try {
+					PriorityQueue<E> q = this.queues.get(i);
+					q.add(e);
+					this.heads.set(i, q.peek());
+					this.size.incrementAndGet();
+				} finally {
+					this.locks[i].unlock();
+				}
+				return true;
+			}
+		}
+	}
+
+	/**
+	 * Inserts the specified element into a randomly chosen sub-queue.
+	 * 
+	 * @param e
+	 *            - the element to add
+	 * 
+	 * @return true if inserted successfully
+	 * 
+	 * @throws NullPointerException
+	 *             - if the specified element is null
+	 */
+	public boolean offer(E e) {
+		return this.add(e);
+	}
+
+	/**
+	 * Retrieves and removes the smaller of the heads of two randomly chosen
+	 * sub-queues. If random picks keep finding empty sub-queues, every
+	 * sub-queue is checked in turn before giving up. Returns null only if
+	 * every sub-queue was empty when it was checked.
+	 * 
+	 * @return an element close to the head of this queue, or null if this
+	 *         queue is empty
+	 */
+	public E poll() {
+		ThreadLocalRandom rand = ThreadLocalRandom.current();
+		int misses = 0;
+		while (misses < this.locks.length) {
+			if (this.size.get() == 0)
+				return null;
+			int i = rand.nextInt(this.locks.length);
+			int j = rand.nextInt(this.locks.length);
+			E first = this.heads.get(i);
+			E second = this.heads.get(j);
+			if (first == null && second == null) {
+				misses++;
+				continue;
+			}
+			int best = (second == null || (first != null && first
+					.compareTo(second) <= 0)) ? i : j;
+			if (this.locks[best].tryLock()) {
+				try {
+					E e = this.pollLocked(best);
+					if (e != null)
+						return e;
+				} finally {
+					this.locks[best].unlock();
+				}
+			}
+		}
+		for (int i = 0; i < this.locks.length; i++) {
+			this.locks[i].lock();
+			try {
+				E e = this.pollLocked(i);
+				if (e != null)
+					return e;
+			} finally {
+				this.locks[i].unlock();
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Retrieves, but does not remove, the smallest head among the
+	 * sub-queues, or returns null if every sub-queue looks empty. Other
+	 * threads may change the queue while the heads are read.
+	 * 
+	 * @return the smallest head, or null if this queue looks empty
+	 */
+	public E peek() {
+		E min = null;
+		for (int i = 0; i < this.heads.length(); i++) {
+			E e = this.heads.get(i);
+			if (e != null && (min == null || e.compareTo(min) < 0))
+				min = e;
+		}
+		return min;
+	}
+
+	/**
+	 * Returns the number of elements in this queue.
+	 * 
+	 * @return the number of elements in this queue
+	 */
+	public int size() {
+		return this.size.get();
+	}
+
+	/**
+	 * Returns TRUE if this queue has no elements and FALSE otherwise.
+	 * 
+	 * @return boolean if this queue is empty
+	 */
+	public boolean isEmpty() {
+		return this.size.get() == 0;
+	}
+
+	/**
+	 * Polls the sub-queue at the specified index and refreshes its cached
+	 * head. The caller must hold the sub-queue's lock.
+	 * 
+	 * @param index
+	 *            - index of the sub-queue
+	 * 
+	 * @return the head of the sub-queue, or null if it is empty
+	 */
+	private E pollLocked(int index) {
+		PriorityQueue<E> q = this.queues.get(index);
+		E e = q.poll();
+		this.heads.set(index, q.peek());
+		if (e != null)
+			this.size.decrementAndGet();
+		return e;
+	}
+}
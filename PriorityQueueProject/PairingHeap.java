@@ -0,0 +1,301 @@
+import java.util.Stack;
+
+/**
+ * A pairing heap: a heap-ordered tree where every node keeps its children in
+ * a linked list. Adding an element or melding a whole other heap in links
+ * two roots together in O(1). poll pairs up the children of the root from
+ * left to right and then links the pairs from right to left, which is
+ * O(log n) amortized.
+ * 
+ * @author derrowap
+ * 
+ * @param <E>
+ *            - the type of elements stored
+ */
+public class PairingHeap<E extends Comparable<? super E>> {
+	private Node root;
+	private int size;
+
+	/**
+	 * Constructs an empty PairingHeap.
+	 */
+	public PairingHeap() {
+		this.root = null;
+		this.size = 0;
+	}
+
+	/**
+	 * Inserts the specified element into this heap in O(1).
+	 * 
+	 * @param e
+	 *            - the element to add
+	 * 
+	 * @return true if inserted successfully
+	 * 
+	 * @throws NullPointerException
+	 *             - if the specified element is null
+	 */
+	public boolean add(E e) {
+		if (e == null)
+			throw new NullPointerException();
+		Node node = new Node(e);
+		this.root = this.root == null ? node : this.link(this.root, node);
+		this.size++;
+		return true;
+	}
+
+	/**
+	 * Inserts the specified element into this heap in O(1).
+	 * 
+	 * @param e
+	 *            - the element to add
+	 * 
+	 * @return true if inserted successfully
+	 * 
+	 * @throws NullPointerException
+	 *             - if the specified element is null
+	 */
+	public boolean offer(E e) {
+		return this.add(e);
+	}
+
+	/**
+	 * Retrieves, but does not remove, the head of this heap, or returns null
+	 * if this heap is empty.
+	 * 
+	 * @return the head of this heap, or null if this heap is empty
+	 */
+	public E peek() {
+		if (this.root == null)
+			return null;
+		return this.root.element;
+	}
+
+	/**
+	 * Retrieves and removes the head of this heap, or returns null if this
+	 * heap is empty.
+	 * 
+	 * @return the head of this heap, or null if this heap is empty
+	 */
+	public E poll() {
+		if (this.root == null)
+			return null;
+		E e = this.root.element;
+		this.root = this.mergePairs(this.root.child);
+		this.size--;
+		return e;
+	}
+
+	/**
+	 * Removes a single instance of the specified element from this heap, if
+	 * it is present. Finding the element searches the whole tree, so this is
+	 * O(n); cutting it out afterwards is O(log n) amortized.
+	 * 
+	 * @param o
+	 *            - element to be removed from this heap, if present
+	 * 
+	 * @return true if this heap changed as a result of the call
+	 */
+	public boolean remove(Object o) {
+		Node node = this.find(o);
+		if (node == null)
+			return false;
+		if (node == this.root) {
+			this.poll();
+			return true;
+		}
+		// Cut the node out of its parent's list of children
+		if (node.previous.child == node)
+			node.previous.child = node.sibling;
+		else
+			node.previous.sibling = node.sibling;
+		if (node.sibling != null)
+			node.sibling.previous = node.previous;
+		node.previous = null;
+		node.sibling = null;
+		Node children = this.mergePairs(node.child);
+		if (children != null)
+			this.root = this.link(this.root, children);
+		this.size--;
+		return true;
+	}
+
+	/**
+	 * Returns true if this heap contains the specified element. This searches
+	 * the whole tree in O(n).
+	 * 
+	 * @param o
+	 *            - object to be checked for containment in this heap
+	 * 
+	 * @return true if this heap contains the specified element
+	 */
+	public boolean contains(Object o) {
+		return this.find(o) != null;
+	}
+
+	/**
+	 * Moves every element of the specified heap into this heap in O(1). The
+	 * other heap is empty afterwards.
+	 * 
+	 * @param other
+	 *            - the heap to meld into this one
+	 * 
+	 * @throws IllegalArgumentException
+	 *             - if other is this heap
+	 */
+	public void meld(PairingHeap<E> other) {
+		if (other == this)
+			throw new IllegalArgumentException("Can't meld a heap with itself");
+		if (other.root == null)
+			return;
+		this.root = this.root == null ? other.root : this.link(this.root,
+				other.root);
+		this.size += other.size;
+		other.root = null;
+		other.size = 0;
+	}
+
+	/**
+	 * Removes all of the elements from this heap.
+	 */
+	public void clear() {
+		this.root = null;
+		this.size = 0;
+	}
+
+	/**
+	 * Returns TRUE if this heap has no elements and FALSE otherwise.
+	 * 
+	 * @return boolean if this heap is empty
+	 */
+	public boolean isEmpty() {
+		return this.size == 0;
+	}
+
+	/**
+	 * Returns the number of elements in this heap.
+	 * 
+	 * @return the number of elements in this heap
+	 */
+	public int size() {
+		return this.size;
+	}
+
+	/**
+	 * Makes the root with the larger element the first child of the other
+	 * root. Both nodes must be roots without siblings.
+	 * 
+	 * @param a
+	 *            - the first root
+	 * @param b
+	 *            - the second root
+	 * 
+	 * @return the root with the smaller element
+	 */
+	private Node link(Node a, Node b) {
+		if (b.element.compareTo(a.element) < 0) {
+			Node temp = a;
+			a = b;
+			b = temp;
+		}
+		b.sibling = a.child;
+		if (a.child != null)
+			a.child.previous = b;
+		b.previous = a;
+		a.child = b;
+		return a;
+	}
+
+	/**
+	 * Links a list of siblings into a single tree. The first pass links the
+	 * siblings in pairs from left to right, pushing each pair onto a stack
+	 * threaded through the sibling pointers. The second pass pops the stack,
+	 * linking every pair into the result from right to left.
+	 * 
+	 * @param first
+	 *            - the first node of the list of siblings
+	 * 
+	 * @return the root of the linked tree, or null if the list is empty
+	 */
+	private Node mergePairs(Node first) {
+		if (first == null)
+			return null;
+		Node pairs = null;
+		while (first != null) {
+			Node a = first;
+			Node b = a.sibling;
+			first = b == null ? null : b.sibling;
+			a.previous = null;
+			a.sibling = null;
+			if (b != null) {
+				b.previous = null;
+				b.sibling = null;
+				a = this.link(a, b);
+			}
+			a.sibling = pairs;
+			pairs = a;
+		}
+		Node output = pairs;
+		pairs = pairs.sibling;
+		output.sibling = null;
+		while (pairs != null) {
+			Node next = pairs.sibling;
+			pairs.sibling = null;
+			output = this.link(output, pairs);
+			pairs = next;
+		}
+		return output;
+	}
+
+	/**
+	 * Searches the whole tree for a node holding the specified element.
+	 * 
+	 * @param o
+	 *            - the element to look for
+	 * 
+	 * @return a node holding the element, or null if there is none
+	 */
+	private Node find(Object o) {
+		if (o == null || this.root == null)
+			return null;
+		Stack<Node> stack = new Stack<>();
+		stack.push(this.root);
+		while (!stack.empty()) {
+			Node node = stack.pop();
+			if (node.element.equals(o))
+				return node;
+			if (node.sibling != null)
+				stack.push(node.sibling);
+			if (node.child != null)
+				stack.push(node.child);
+		}
+		return null;
+	}
+
+	/**
+	 * A node of the PairingHeap. previous points at the previous sibling, or
+	 * at the parent for the first child.
+	 * 
+	 * @author derrowap
+	 * 
+	 */
+	private class Node {
+		private E element;
+		private Node child;
+		private Node sibling;
+		private Node previous;
+
+		/**
+		 * Constructs a Node without children or siblings.
+		 * 
+		 * @param e
+		 *            - the element of this Node
+		 */
+		private Node(E e) {
+			this.element = e;
+			this.child = null;
+			this.sibling = null;
+			this.previous = null;
+		}
+	}
+}
@@ -1,9 +1,32 @@
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.ConcurrentModificationException;
+import java.util.HashMap;
 import java.util.Iterator;
+import java.util.NoSuchElementException;
 
 /**
  * A Priority Queue data structure.
  * 
+ * The first time an element is looked up by value (contains or
+ * remove(Object)), every element is paired with a Handle that remembers the
+ * index it sits at in the heap, and handles are found by element through a
+ * HashMap. From then on contains answers with a single lookup and
+ * remove(Object) finds its element without scanning before rebalancing in
+ * O(log n). Queues that are only ever added to and polled never pay for the
+ * bookkeeping.
+ * 
+ * A queue can be given a bound with setBound, turning it into a top-K
+ * collector: it keeps only the K largest elements added, with the smallest
+ * of them at the head as the threshold. An element that is not larger than
+ * the head is rejected with a single comparison, and a larger one replaces
+ * the head in O(log K), so the queue never holds more than K elements.
+ * 
+ * A stable queue returns equal elements in the order they were added. Each
+ * heap slot is given the sequence number of its element's insertion in a
+ * parallel long[], and equal elements are ordered by sequence number.
+ * 
  * @author derrowap
  * 
  * @param <E>
@@ -11,26 +34,286 @@ import java.util.Iterator;
  */
 public class PriorityQueue<E extends Comparable<? super E>> extends
 		ArrayList<E> {
+	private final int arity;
+	private ArrayList<Handle<E>> handles;
+	private HashMap<Object, Handle<E>> positions;
+	private int bound;
+	private long[] sequences;
+	private long nextSequence;
+
 	public PriorityQueue() {
+		this(2);
+	}
+
+	/**
+	 * Constructs a PriorityQueue whose heap gives every element up to the
+	 * specified number of children. A wider heap is shallower, so adding
+	 * moves an element up fewer levels, and the children compared while
+	 * polling sit next to each other in memory. Polling compares more
+	 * children per level in exchange.
+	 * 
+	 * @param arity
+	 *            - the number of children of every element, at least 2
+	 * 
+	 * @throws IllegalArgumentException
+	 *             - if arity is less than 2
+	 */
+	public PriorityQueue(int arity) {
+		this(arity, false);
+	}
+
+	/**
+	 * Constructs a PriorityQueue with the specified arity that, if stable,
+	 * returns equal elements in the order they were added.
+	 * 
+	 * @param arity
+	 *            - the number of children of every element, at least 2
+	 * @param stable
+	 *            - true to break ties between equal elements first in, first
+	 *            out
+	 * 
+	 * @throws IllegalArgumentException
+	 *             - if arity is less than 2
+	 */
+	public PriorityQueue(int arity, boolean stable) {
 		super();
+		if (arity < 2)
+			throw new IllegalArgumentException("Arity must be at least 2");
+		this.arity = arity;
+		this.handles = null;
+		this.positions = null;
+		this.bound = 0;
+		this.sequences = stable ? new long[16] : null;
+		this.nextSequence = 0;
 	}
 
 	/**
-	 * Inserts the specified element into this priority queue.
+	 * Constructs a PriorityQueue containing the elements of the specified
+	 * collection. The heap is built bottom-up in O(n).
+	 * 
+	 * @param c
+	 *            - the collection whose elements are to be placed into this
+	 *            priority queue
+	 * 
+	 * @throws NullPointerException
+	 *             - if any of the specified elements are null
+	 */
+	public PriorityQueue(Collection<? extends E> c) {
+		super(c.size());
+		this.arity = 2;
+		this.handles = null;
+		this.positions = null;
+		this.bound = 0;
+		this.sequences = null;
+		this.nextSequence = 0;
+		this.addAll(c);
+	}
+
+	/**
+	 * Constructs a PriorityQueue containing the elements of the specified
+	 * array. The heap is built bottom-up in O(n).
+	 * 
+	 * @param a
+	 *            - the array whose elements are to be placed into this
+	 *            priority queue
+	 * 
+	 * @throws NullPointerException
+	 *             - if any of the specified elements are null
+	 */
+	public PriorityQueue(E[] a) {
+		this(Arrays.asList(a));
+	}
+
+	/**
+	 * Inserts the specified element into this priority queue. If the queue
+	 * is bounded and full, the element is only inserted if it is larger than
+	 * the head, which is then removed to make room.
 	 * 
 	 * @param e
 	 *            - the element to add
 	 * 
-	 * @return true if inserted successfully
+	 * @return true if inserted successfully, false if a full bounded queue
+	 *         rejected the element
 	 * 
 	 * @throws NullPointerException
 	 *             - if the specified element is null
 	 */
 	public boolean add(E e) {
+		if (!this.isFull()) {
+			this.append(e);
+			return true;
+		}
+		if (!this.beatsHead(e))
+			return false;
+		this.replaceHead(e);
+		return true;
+	}
+
+	/**
+	 * Inserts all of the elements in the specified collection into this
+	 * priority queue. When at least as many elements are added as are already
+	 * queued, they are all appended and the heap is rebuilt bottom-up in
+	 * O(n); otherwise, or if the queue is bounded, each one is added on its
+	 * own.
+	 * 
+	 * @param c
+	 *            - the collection containing elements to be added
+	 * 
+	 * @return true if this queue changed as a result of the call
+	 * 
+	 * @throws NullPointerException
+	 *             - if any of the specified elements are null
+	 * @throws IllegalArgumentException
+	 *             - if the collection is this queue
+	 */
+	public boolean addAll(Collection<? extends E> c) {
+		if (c == this)
+			throw new IllegalArgumentException("Can't add a queue to itself");
+		for (E e : c)
+			if (e == null)
+				throw new NullPointerException();
+		if (this.bound > 0) {
+			boolean changed = false;
+			for (E e : c)
+				changed |= this.add(e);
+			return changed;
+		}
+		if (c.size() < super.size()) {
+			for (E e : c)
+				this.append(e);
+			return !c.isEmpty();
+		}
+		super.ensureCapacity(super.size() + c.size());
+		for (E e : c)
+			this.appendLeaf(e);
+		this.heapify();
+		return !c.isEmpty();
+	}
+
+	/**
+	 * Inserts the specified element into this priority queue and returns a
+	 * handle to it. The handle can later be given to changePriority,
+	 * decreaseKey or remove to reach the element without searching for it.
+	 * If a full bounded queue rejects the element, the returned handle is not
+	 * queued.
+	 * 
+	 * @param e
+	 *            - the element to add
+	 * 
+	 * @return the handle of the inserted element
+	 * 
+	 * @throws NullPointerException
+	 *             - if the specified element is null
+	 */
+	public Handle<E> insert(E e) {
+		this.track();
+		if (!this.isFull())
+			return this.append(e);
+		if (!this.beatsHead(e))
+			return new Handle<>(e, -1);
+		return this.replaceHead(e);
+	}
+
+	/**
+	 * Bounds this queue to the specified number of elements, or removes the
+	 * bound if it is 0. A bounded queue keeps the largest elements added to
+	 * it. If the queue holds more elements than the new bound, its smallest
+	 * elements are polled until it fits.
+	 * 
+	 * @param k
+	 *            - the most elements this queue may hold, or 0 for no bound
+	 * 
+	 * @throws IllegalArgumentException
+	 *             - if k is negative
+	 */
+	public void setBound(int k) {
+		if (k < 0)
+			throw new IllegalArgumentException("Negative bound");
+		this.bound = k;
+		if (k > 0)
+			while (super.size() > k)
+				this.poll();
+	}
+
+	/**
+	 * Returns the most elements this queue may hold, or 0 if it is not
+	 * bounded.
+	 * 
+	 * @return the bound of this queue
+	 */
+	public int getBound() {
+		return this.bound;
+	}
+
+	/**
+	 * Replaces the element of the specified handle with the given element and
+	 * moves it up or down the heap to where its new priority belongs.
+	 * 
+	 * @param handle
+	 *            - handle of the element to change
+	 * @param e
+	 *            - the element to replace it with
+	 * 
+	 * @throws NullPointerException
+	 *             - if the specified element is null
+	 * @throws IllegalArgumentException
+	 *             - if the handle's element is not in this queue
+	 */
+	public void changePriority(Handle<E> handle, E e) {
 		if (e == null)
 			throw new NullPointerException();
-		super.add(e);
-		this.addBalance(super.size() - 1);
+		if (!this.owns(handle))
+			throw new IllegalArgumentException("Handle is not in this queue");
+		E old = handle.element;
+		this.modCount++;
+		this.unlink(handle);
+		handle.element = e;
+		this.link(handle);
+		super.set(handle.index, e);
+		if (e.compareTo(old) < 0)
+			this.addBalance(handle.index);
+		else
+			this.removeBalance(handle.index);
+	}
+
+	/**
+	 * Replaces the element of the specified handle with the given element,
+	 * which must not be larger, and moves it up the heap.
+	 * 
+	 * @param handle
+	 *            - handle of the element to change
+	 * @param e
+	 *            - the element to replace it with
+	 * 
+	 * @throws NullPointerException
+	 *             - if the specified element is null
+	 * @throws IllegalArgumentException
+	 *             - if the handle's element is not in this queue, or if the
+	 *             specified element is larger than the handle's element
+	 */
+	public void decreaseKey(Handle<E> handle, E e) {
+		if (e == null)
+			throw new NullPointerException();
+		if (!this.owns(handle))
+			throw new IllegalArgumentException("Handle is not in this queue");
+		if (e.compareTo(handle.element) > 0)
+			throw new IllegalArgumentException("Key is larger than before");
+		this.changePriority(handle, e);
+	}
+
+	/**
+	 * Removes the element of the specified handle from this queue, if it is
+	 * still present.
+	 * 
+	 * @param handle
+	 *            - handle of the element to remove
+	 * 
+	 * @return true if this queue changed as a result of the call
+	 */
+	public boolean remove(Handle<E> handle) {
+		if (!this.owns(handle))
+			return false;
+		this.removeAt(handle.index);
 		return true;
 	}
 
@@ -40,6 +323,12 @@ public class PriorityQueue<E extends Comparable<? super E>> extends
 	 */
 	public void clear() {
 		super.clear();
+		if (this.handles != null) {
+			for (Handle<E> handle : this.handles)
+				handle.index = -1;
+			this.handles.clear();
+			this.positions.clear();
+		}
 	}
 
 	/**
@@ -51,7 +340,8 @@ public class PriorityQueue<E extends Comparable<? super E>> extends
 	 * @return true if this queue contains the specified element
 	 */
 	public boolean contains(Object o) {
-		return super.contains(o);
+		this.track();
+		return this.positions.containsKey(o);
 	}
 
 	/**
@@ -63,6 +353,19 @@ public class PriorityQueue<E extends Comparable<? super E>> extends
 		return super.iterator();
 	}
 
+	/**
+	 * Returns an iterator over the elements in this queue in priority order,
+	 * smallest first, without removing them. The iterator keeps a small heap
+	 * of the indices that could come next, starting from the root; each time
+	 * an element is returned its children are added. Reading the first k
+	 * elements costs O(k log k) and leaves this queue unchanged.
+	 * 
+	 * @return an iterator over the elements in this queue in priority order
+	 */
+	public Iterator<E> sortedIterator() {
+		return new SortedIterator();
+	}
+
 	/**
 	 * Inserts the specified element into this priority queue.
 	 * 
@@ -100,10 +403,60 @@ public class PriorityQueue<E extends Comparable<? super E>> extends
 		if (super.isEmpty())
 			return null;
 		E e = this.peek();
-		this.remove(e);
+		this.removeAt(0);
 		return e;
 	}
 
+	/**
+	 * Removes up to max of the smallest elements of this queue and stores
+	 * them in the specified array in order, starting at index 0. Fewer are
+	 * removed if the queue or the array runs out first. Nothing is allocated.
+	 * 
+	 * @param dest
+	 *            - the array to store the removed elements in
+	 * @param max
+	 *            - the most elements to remove
+	 * 
+	 * @return the number of elements removed
+	 * 
+	 * @throws IllegalArgumentException
+	 *             - if max is negative
+	 */
+	public int drainTo(E[] dest, int max) {
+		if (max < 0)
+			throw new IllegalArgumentException("Negative max");
+		int count = Math.min(Math.min(max, dest.length), super.size());
+		for (int i = 0; i < count; i++) {
+			dest[i] = super.get(0);
+			this.removeAt(0);
+		}
+		return count;
+	}
+
+	/**
+	 * Removes up to k of the smallest elements of this queue and returns them
+	 * in order.
+	 * 
+	 * @param k
+	 *            - the most elements to remove
+	 * 
+	 * @return a list of the removed elements, smallest first
+	 * 
+	 * @throws IllegalArgumentException
+	 *             - if k is negative
+	 */
+	public ArrayList<E> pollBatch(int k) {
+		if (k < 0)
+			throw new IllegalArgumentException("Negative batch size");
+		int count = Math.min(k, super.size());
+		ArrayList<E> batch = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			batch.add(super.get(0));
+			this.removeAt(0);
+		}
+		return batch;
+	}
+
 	/**
 	 * Removes a single instance of the specified element from this queue, if it
 	 * is present.
@@ -114,16 +467,11 @@ public class PriorityQueue<E extends Comparable<? super E>> extends
 	 * @return true if this queue changed as a result of the call
 	 */
 	public boolean remove(Object o) {
-		int e = super.indexOf(o);
-		if (e == -1)
+		this.track();
+		Handle<E> handle = this.positions.get(o);
+		if (handle == null)
 			return false;
-		int lastIndex = super.size() - 1;
-		if (e != lastIndex) {
-			super.set(e, super.get(lastIndex));
-			super.remove(lastIndex);
-			this.removeBalance(e);
-		} else
-			super.remove(e);
+		this.removeAt(handle.index);
 		return true;
 	}
 
@@ -160,47 +508,369 @@ public class PriorityQueue<E extends Comparable<? super E>> extends
 	}
 
 	/**
-	 * If the element at the specified index is smaller than the parent of that
-	 * element, they swap places. Recursively is called all the way up the tree
-	 * until it no longer needs to swap.
+	 * Returns true if this queue is bounded and holds as many elements as its
+	 * bound allows.
+	 * 
+	 * @return true if this queue is full
+	 */
+	private boolean isFull() {
+		return this.bound > 0 && super.size() >= this.bound;
+	}
+
+	/**
+	 * Returns true if the specified element is larger than the head, and so
+	 * belongs in a full bounded queue.
+	 * 
+	 * @param e
+	 *            - the candidate element
+	 * 
+	 * @return true if the element is larger than the head
+	 * 
+	 * @throws NullPointerException
+	 *             - if the specified element is null
+	 */
+	private boolean beatsHead(E e) {
+		if (e == null)
+			throw new NullPointerException();
+		return e.compareTo(super.get(0)) > 0;
+	}
+
+	/**
+	 * Replaces the head with the specified element and moves it down to where
+	 * it belongs.
+	 * 
+	 * @param e
+	 *            - the element to put at the head
+	 * 
+	 * @return the handle of the element, or null if indices are not being
+	 *         tracked
+	 */
+	private Handle<E> replaceHead(E e) {
+		Handle<E> handle = null;
+		this.modCount++;
+		if (this.handles != null) {
+			Handle<E> removed = this.handles.get(0);
+			this.unlink(removed);
+			removed.index = -1;
+			handle = new Handle<>(e, 0);
+			this.handles.set(0, handle);
+			this.link(handle);
+		}
+		super.set(0, e);
+		if (this.sequences != null)
+			this.sequences[0] = this.nextSequence++;
+		this.removeBalance(0);
+		return handle;
+	}
+
+	/**
+	 * Appends the specified element to the end of the heap and moves it up to
+	 * where it belongs.
+	 * 
+	 * @param e
+	 *            - the element to add
+	 * 
+	 * @return the handle of the element, or null if indices are not being
+	 *         tracked
+	 * 
+	 * @throws NullPointerException
+	 *             - if the specified element is null
+	 */
+	private Handle<E> append(E e) {
+		if (e == null)
+			throw new NullPointerException();
+		Handle<E> handle = this.appendLeaf(e);
+		this.addBalance(super.size() - 1);
+		return handle;
+	}
+
+	/**
+	 * Appends the specified element to the end of the heap without moving it.
+	 * 
+	 * @param e
+	 *            - the element to add
+	 * 
+	 * @return the handle of the element, or null if indices are not being
+	 *         tracked
+	 */
+	private Handle<E> appendLeaf(E e) {
+		super.add(e);
+		if (this.sequences != null) {
+			int index = super.size() - 1;
+			if (index == this.sequences.length)
+				this.sequences = Arrays.copyOf(this.sequences, index * 2);
+			this.sequences[index] = this.nextSequence++;
+		}
+		if (this.handles == null)
+			return null;
+		Handle<E> handle = new Handle<>(e, super.size() - 1);
+		this.handles.add(handle);
+		this.link(handle);
+		return handle;
+	}
+
+	/**
+	 * Restores the heap order of every element by moving each parent down to
+	 * where it belongs, starting from the last parent and working back to the
+	 * root. Every level does work proportional to its height, which sums to
+	 * O(n).
+	 */
+	private void heapify() {
+		for (int i = this.lastParent(); i >= 0; i--)
+			this.removeBalance(i);
+	}
+
+	/**
+	 * Returns true if the specified handle belongs to an element that is
+	 * currently in this queue.
+	 * 
+	 * @param handle
+	 *            - the handle to check
+	 * 
+	 * @return true if the handle's element is in this queue
+	 */
+	private boolean owns(Handle<E> handle) {
+		return handle != null && this.handles != null && handle.index >= 0
+				&& handle.index < this.handles.size()
+				&& this.handles.get(handle.index) == handle;
+	}
+
+	/**
+	 * Removes the element at the specified index by moving the last element
+	 * into its place and rebalancing. The moved element may belong either
+	 * further down or further up the tree, so both directions are checked.
+	 * 
+	 * @param index
+	 *            - index of the element to remove
+	 */
+	private void removeAt(int index) {
+		int lastIndex = super.size() - 1;
+		Handle<E> moved = null;
+		if (this.handles != null) {
+			Handle<E> removed = this.handles.get(index);
+			this.unlink(removed);
+			removed.index = -1;
+			moved = this.handles.remove(lastIndex);
+		}
+		long sequence = this.sequenceAt(lastIndex);
+		E last = super.remove(lastIndex);
+		if (index != lastIndex) {
+			this.place(index, last, moved, sequence);
+			this.removeBalance(index);
+			if (super.get(index) == last)
+				this.addBalance(index);
+		}
+	}
+
+	/**
+	 * Starts tracking the index of every element, if it is not tracked
+	 * already. Pairs every queued element with a Handle and adds it to the
+	 * positions map.
+	 */
+	private void track() {
+		if (this.handles != null)
+			return;
+		this.handles = new ArrayList<>(super.size());
+		this.positions = new HashMap<>();
+		for (int i = 0; i < super.size(); i++) {
+			Handle<E> handle = new Handle<>(super.get(i), i);
+			this.handles.add(handle);
+			this.link(handle);
+		}
+	}
+
+	/**
+	 * Returns the handle of the element at the specified index, or null if
+	 * indices are not being tracked.
+	 * 
+	 * @param index
+	 *            - index of the element
+	 * 
+	 * @return the handle of the element, or null
+	 */
+	private Handle<E> handleAt(int index) {
+		if (this.handles == null)
+			return null;
+		return this.handles.get(index);
+	}
+
+	/**
+	 * Returns the sequence number of the element at the specified index, or 0
+	 * if this queue is not stable.
+	 * 
+	 * @param index
+	 *            - index of the element
+	 * 
+	 * @return the sequence number of the element, or 0
+	 */
+	private long sequenceAt(int index) {
+		if (this.sequences == null)
+			return 0;
+		return this.sequences[index];
+	}
+
+	/**
+	 * Compares two elements, breaking ties by sequence number if this queue is
+	 * stable.
+	 * 
+	 * @param a
+	 *            - the first element
+	 * @param sequenceA
+	 *            - sequence number of the first element
+	 * @param b
+	 *            - the second element
+	 * @param sequenceB
+	 *            - sequence number of the second element
+	 * 
+	 * @return a negative integer, zero, or a positive integer as a comes
+	 *         before, ties with, or comes after b
+	 */
+	private int compare(E a, long sequenceA, E b, long sequenceB) {
+		int order = a.compareTo(b);
+		if (order != 0 || this.sequences == null)
+			return order;
+		return Long.compare(sequenceA, sequenceB);
+	}
+
+	/**
+	 * Compares the elements at the specified indices, breaking ties by
+	 * sequence number if this queue is stable.
+	 * 
+	 * @param i
+	 *            - index of the first element
+	 * @param j
+	 *            - index of the second element
+	 * 
+	 * @return a negative integer, zero, or a positive integer as the first
+	 *         element comes before, ties with, or comes after the second
+	 */
+	private int compareAt(int i, int j) {
+		return this.compare(super.get(i), this.sequenceAt(i), super.get(j),
+				this.sequenceAt(j));
+	}
+
+	/**
+	 * Puts the element, its handle and its sequence number at the specified
+	 * index.
+	 * 
+	 * @param index
+	 *            - index to put the element at
+	 * @param e
+	 *            - the element
+	 * @param handle
+	 *            - the handle of the element, or null if indices are not
+	 *            being tracked
+	 * @param sequence
+	 *            - the sequence number of the element, ignored if this queue
+	 *            is not stable
+	 */
+	private void place(int index, E e, Handle<E> handle, long sequence) {
+		super.set(index, e);
+		if (this.sequences != null)
+			this.sequences[index] = sequence;
+		if (handle != null) {
+			this.handles.set(index, handle);
+			handle.index = index;
+		}
+	}
+
+	/**
+	 * Adds the specified handle to the positions map. If an equal element is
+	 * already queued, the handle is chained behind that element's handle
+	 * instead.
+	 * 
+	 * @param handle
+	 *            - the handle to add
+	 */
+	private void link(Handle<E> handle) {
+		Handle<E> first = this.positions.putIfAbsent(handle.element, handle);
+		if (first == null)
+			return;
+		handle.previous = first;
+		handle.next = first.next;
+		if (first.next != null)
+			first.next.previous = handle;
+		first.next = handle;
+	}
+
+	/**
+	 * Removes the specified handle from the positions map, handing the map
+	 * entry over to the next equal element if there is one.
+	 * 
+	 * @param handle
+	 *            - the handle to remove
+	 */
+	private void unlink(Handle<E> handle) {
+		if (handle.previous != null) {
+			handle.previous.next = handle.next;
+			if (handle.next != null)
+				handle.next.previous = handle.previous;
+		} else {
+			this.positions.remove(handle.element);
+			if (handle.next != null) {
+				handle.next.previous = null;
+				this.positions.put(handle.next.element, handle.next);
+			}
+		}
+		handle.previous = null;
+		handle.next = null;
+	}
+
+	/**
+	 * While the element at the specified index is smaller than its parent,
+	 * the parent is moved down into its place. The element is written once,
+	 * at the index it ends up at.
 	 * 
 	 * @param index
 	 *            - index of element to check for balancing
 	 */
 	private void addBalance(int index) {
-		E end = super.get(index);
-		E swap = super.get((index - 1) / 2);
-		if (swap.compareTo(end) > 0) { // Swap elements
-			super.set((index - 1) / 2, end);
-			super.set(index, swap);
-			this.addBalance((index - 1) / 2);
-		} // Done
+		E e = super.get(index);
+		Handle<E> handle = this.handleAt(index);
+		long sequence = this.sequenceAt(index);
+		while (index > 0) {
+			int parent = this.parent(index);
+			E swap = super.get(parent);
+			long swapSequence = this.sequenceAt(parent);
+			if (this.compare(swap, swapSequence, e, sequence) <= 0)
+				break; // Done
+			this.place(index, swap, this.handleAt(parent), swapSequence);
+			index = parent;
+		}
+		this.place(index, e, handle, sequence);
 	}
 
 	/**
-	 * Recursively iterates down the tree, checking if the element at the
-	 * specified index is larger than one of its children, if so swaps places
-	 * with the smallest child.
+	 * While the element at the specified index is larger than one of its
+	 * children, the smallest child is moved up into its place. The element is
+	 * written once, at the index it ends up at.
 	 * 
 	 * @param index
 	 *            - index of element to check for balancing
 	 */
 	private void removeBalance(int index) {
+		E e = super.get(index);
+		Handle<E> handle = this.handleAt(index);
+		long sequence = this.sequenceAt(index);
 		int smallest = this.smallestChild(index);
-		if (smallest == -1)
-			return;
-		E parent = super.get(index);
-		E child = super.get(smallest);
-		if (child.compareTo(parent) < 0) { // Swap elements
-			super.set(index, child);
-			super.set(smallest, parent);
-			this.removeBalance(smallest);
-		} // Done
+		while (smallest != -1) {
+			E child = super.get(smallest);
+			long childSequence = this.sequenceAt(smallest);
+			if (this.compare(child, childSequence, e, sequence) >= 0)
+				break; // Done
+			this.place(index, child, this.handleAt(smallest), childSequence);
+			index = smallest;
+			smallest = this.smallestChild(index);
+		}
+		this.place(index, e, handle, sequence);
 	}
 
 	/**
 	 * Returns the smallest child's index of the element specified by the given
-	 * index. Returns -1 if there are no children to the parent element.
+	 * index. Returns -1 if there are no children to the parent element. The
+	 * children of the element at index i are found with child, at indices
+	 * arity * i + 1 through arity * i + arity unless a subclass lays the heap
+	 * out differently, and the first of equal children is picked.
 	 * 
 	 * @param index
 	 *            - the parent element to compare the smallest children with
@@ -208,20 +878,242 @@ public class PriorityQueue<E extends Comparable<? super E>> extends
 	 * @return index of the smallest child
 	 */
 	private int smallestChild(int index) {
-		E leftChild = (index * 2 + 1) < super.size() ? super.get(index * 2 + 1)
-				: null;
-		E rightChild = (index * 2 + 2) < super.size() ? super
-				.get(index * 2 + 2) : null;
+		if (this.arity == 2)
+			return this.smallerChild(index);
+		if (super.size() < 2 || index > this.lastParent())
+			return -1; // no children
+		int first = this.child(index, 0);
+		int smallest = first;
+		E min = super.get(first);
+		long minSequence = this.sequenceAt(first);
+		for (int n = 1; n < this.arity; n++) {
+			int child = this.child(index, n);
+			if (child >= super.size())
+				break;
+			E e = super.get(child);
+			long sequence = this.sequenceAt(child);
+			if (this.compare(e, sequence, min, minSequence) < 0) {
+				smallest = child;
+				min = e;
+				minSequence = sequence;
+			}
+		}
+		return smallest;
+	}
+
+	/**
+	 * Returns the smaller child's index of the element specified by the given
+	 * index in a binary heap. Returns -1 if there are no children to the
+	 * parent element.
+	 * 
+	 * @param index
+	 *            - the parent element to compare the smaller children with
+	 * 
+	 * @return index of the smaller child
+	 */
+	private int smallerChild(int index) {
+		int left = this.child(index, 0);
+		int right = this.child(index, 1);
+		E leftChild = left < super.size() ? super.get(left) : null;
+		E rightChild = right < super.size() ? super.get(right) : null;
 		if (rightChild == null) {
 			if (leftChild != null)
-				return index * 2 + 1; // leftChild is smallest
+				return left; // leftChild is smallest
 			return -1; // both children are null
 		}
 		if (leftChild == null)
-			return index * 2 + 2; // rightChild is smallest
-		if (leftChild.compareTo(rightChild) <= 0)
-			return index * 2 + 1; // leftChild is smallest
-		return index * 2 + 2; // rightChild is smallest
+			return right; // rightChild is smallest
+		if (this.compare(leftChild, this.sequenceAt(left), rightChild,
+				this.sequenceAt(right)) <= 0)
+			return left; // leftChild is smallest
+		return right; // rightChild is smallest
+	}
+
+	/**
+	 * Returns the index of the parent of the element at the specified index,
+	 * which must not be the root. Together with child and lastParent, this
+	 * decides where the heap keeps each element; subclasses may override all
+	 * three to lay the heap out differently in the array.
+	 * 
+	 * @param index
+	 *            - index of an element other than the root
+	 * 
+	 * @return index of its parent
+	 */
+	protected int parent(int index) {
+		return (index - 1) / this.arity;
+	}
+
+	/**
+	 * Returns the index the specified child of an element would sit at. The
+	 * child exists only if the index is less than the size of the queue.
+	 * 
+	 * @param index
+	 *            - index of the parent element
+	 * @param n
+	 *            - which child, from 0 to arity - 1
+	 * 
+	 * @return index of the child
+	 */
+	protected int child(int index, int n) {
+		return index * this.arity + 1 + n;
+	}
+
+	/**
+	 * Returns the largest index of an element that has a child, or a negative
+	 * number if no element has one.
+	 * 
+	 * @return index of the last element with a child
+	 */
+	protected int lastParent() {
+		return (super.size() - 2) / this.arity;
+	}
+
+	/**
+	 * Iterates over the elements of the heap in priority order. The frontier
+	 * is a binary heap of heap indices, ordered by the elements at those
+	 * indices, holding the children of every index returned so far.
+	 * 
+	 * @author derrowap
+	 */
+	private class SortedIterator implements Iterator<E> {
+		private int[] frontier;
+		private int count;
+		private int expectedModCount;
+
+		/**
+		 * Constructs a SortedIterator whose frontier holds just the root.
+		 */
+		private SortedIterator() {
+			this.frontier = new int[16];
+			this.count = 0;
+			this.expectedModCount = PriorityQueue.this.modCount;
+			if (!PriorityQueue.this.isEmpty())
+				this.push(0);
+		}
+
+		@Override
+		public boolean hasNext() {
+			return this.count > 0;
+		}
+
+		@Override
+		public E next() {
+			if (PriorityQueue.this.modCount != this.expectedModCount)
+				throw new ConcurrentModificationException();
+			if (this.count == 0)
+				throw new NoSuchElementException();
+			int index = this.frontier[0];
+			this.count--;
+			if (this.count > 0)
+				this.removeBalance(this.frontier[this.count]);
+			PriorityQueue<E> queue = PriorityQueue.this;
+			for (int n = 0; n < queue.arity; n++) {
+				int child = queue.child(index, n);
+				if (child >= queue.size())
+					break;
+				this.push(child);
+			}
+			return PriorityQueue.this.get(index);
+		}
+
+		/**
+		 * Adds a heap index to the frontier, doubling the frontier if it is
+		 * full.
+		 * 
+		 * @param index
+		 *            - the heap index to add
+		 */
+		private void push(int index) {
+			if (this.count == this.frontier.length)
+				this.frontier = Arrays.copyOf(this.frontier, this.count * 2);
+			int hole = this.count++;
+			while (hole > 0) {
+				int parent = (hole - 1) >>> 1;
+				if (PriorityQueue.this.compareAt(this.frontier[parent], index) <= 0)
+					break;
+				this.frontier[hole] = this.frontier[parent];
+				hole = parent;
+			}
+			this.frontier[hole] = index;
+		}
+
+		/**
+		 * Puts the specified heap index in the hole left at the root of the
+		 * frontier, moving smaller children up while they are smaller.
+		 * 
+		 * @param index
+		 *            - the heap index to place
+		 */
+		private void removeBalance(int index) {
+			PriorityQueue<E> queue = PriorityQueue.this;
+			int hole = 0;
+			int half = this.count >>> 1;
+			while (hole < half) {
+				int child = 2 * hole + 1;
+				if (child + 1 < this.count
+						&& queue.compareAt(this.frontier[child + 1],
+								this.frontier[child]) < 0)
+					child++;
+				if (queue.compareAt(index, this.frontier[child]) <= 0)
+					break;
+				this.frontier[hole] = this.frontier[child];
+				hole = child;
+			}
+			this.frontier[hole] = index;
+		}
+	}
+
+	/**
+	 * Remembers the index an element currently sits at in the heap. Handles of
+	 * equal elements are chained together so that they can share a single
+	 * entry in the positions map. Handles are returned by insert so that an
+	 * element's priority can be changed without searching for it.
+	 * 
+	 * @author derrowap
+	 * 
+	 * @param <E>
+	 *            - the type of element tracked
+	 */
+	public static class Handle<E> {
+		private E element;
+		private int index;
+		private Handle<E> previous;
+		private Handle<E> next;
+
+		/**
+		 * Constructs a Handle for an element at the specified index.
+		 * 
+		 * @param e
+		 *            - the element tracked
+		 * @param index
+		 *            - index of the element in the heap
+		 */
+		private Handle(E e, int index) {
+			this.element = e;
+			this.index = index;
+			this.previous = null;
+			this.next = null;
+		}
+
+		/**
+		 * Returns the element of this Handle.
+		 * 
+		 * @return this element
+		 */
+		public E getElement() {
+			return this.element;
+		}
+
+		/**
+		 * Returns true if this Handle's element has not been removed from the
+		 * queue it was inserted into.
+		 * 
+		 * @return true if the element is still queued
+		 */
+		public boolean isQueued() {
+			return this.index >= 0;
+		}
 	}
 
 }
@@ -0,0 +1,358 @@
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Times the priority queues in this project against each other. Each
+ * benchmark prints one line per input size so the sizes at which one layout
+ * overtakes another can be read off directly. Run with a large heap, for
+ * example java -Xmx4g PriorityQueueBenchmark.
+ * 
+ * @author derrowap
+ */
+public class PriorityQueueBenchmark {
+	static int[] sizes = { 10000, 100000, 1000000, 4000000 };
+	static int[] arities = { 2, 4, 8 };
+	static int runs = 3;
+
+	final static float nanoToMs = 1000 * 1000;
+
+	public static void main(String[] args) {
+		benchmarkArity();
+		benchmarkMeld();
+		benchmarkDijkstra();
+		benchmarkBHeap();
+		benchmarkFlatCombining();
+	}
+
+	/**
+	 * Adds n random elements to a PriorityQueue of every arity and then polls
+	 * them all, printing the best time of several runs for each.
+	 */
+	public static void benchmarkArity() {
+		System.out.println("d-ary PriorityQueue: add n, then poll n (ms)");
+		for (int n : sizes) {
+			Integer[] elements = randomElements(n, 230);
+			String line = "N = " + n;
+			for (int arity : arities) {
+				long bestAdd = Long.MAX_VALUE;
+				long bestPoll = Long.MAX_VALUE;
+				for (int run = 0; run < runs; run++) {
+					PriorityQueue<Integer> q = new PriorityQueue<Integer>(arity);
+					long startTime = System.nanoTime();
+					for (Integer e : elements)
+						q.add(e);
+					long midTime = System.nanoTime();
+					while (!q.isEmpty())
+						q.poll();
+					long endTime = System.nanoTime();
+					bestAdd = Math.min(bestAdd, midTime - startTime);
+					bestPoll = Math.min(bestPoll, endTime - midTime);
+				}
+				line += "   d = " + arity + ": " + bestAdd / nanoToMs + " + "
+						+ bestPoll / nanoToMs;
+			}
+			System.out.println(line);
+		}
+		System.out.println();
+	}
+
+	/**
+	 * Merge-heavy workload: n elements arrive in batches of batchSize, each
+	 * batch is built as its own queue and merged into a global queue, and
+	 * half a batch is polled from the global queue after every merge. The
+	 * PriorityQueue merges with addAll, copying the batch into its array,
+	 * while the PairingHeap links the two roots with meld.
+	 */
+	public static void benchmarkMeld() {
+		int batchSize = 1000;
+		System.out.println("Merge batches of " + batchSize
+				+ ", poll half a batch after each merge (ms)");
+		for (int n : sizes) {
+			Integer[] elements = randomElements(n, 230);
+			long bestArray = Long.MAX_VALUE;
+			long bestPairing = Long.MAX_VALUE;
+			for (int run = 0; run < runs; run++) {
+				long startTime = System.nanoTime();
+				PriorityQueue<Integer> global = new PriorityQueue<Integer>();
+				for (int i = 0; i < n; i += batchSize) {
+					PriorityQueue<Integer> batch = new PriorityQueue<Integer>();
+					for (int j = i; j < Math.min(n, i + batchSize); j++)
+						batch.add(elements[j]);
+					global.addAll(batch);
+					for (int j = 0; j < batchSize / 2; j++)
+						global.poll();
+				}
+				long midTime = System.nanoTime();
+				PairingHeap<Integer> pairing = new PairingHeap<Integer>();
+				for (int i = 0; i < n; i += batchSize) {
+					PairingHeap<Integer> batch = new PairingHeap<Integer>();
+					for (int j = i; j < Math.min(n, i + batchSize); j++)
+						batch.add(elements[j]);
+					pairing.meld(batch);
+					for (int j = 0; j < batchSize / 2; j++)
+						pairing.poll();
+				}
+				long endTime = System.nanoTime();
+				bestArray = Math.min(bestArray, midTime - startTime);
+				bestPairing = Math.min(bestPairing, endTime - midTime);
+			}
+			System.out.println("N = " + n + "   PriorityQueue: " + bestArray
+					/ nanoToMs + "   PairingHeap: " + bestPairing / nanoToMs);
+		}
+		System.out.println();
+	}
+
+	/**
+	 * Runs Dijkstra's algorithm from node 0 of a random graph with n nodes and
+	 * 8 edges leaving every node, using the binary IntPriorityQueue, the
+	 * generic PriorityQueue with distance and node packed into a Long, and
+	 * the RadixHeap. Stale queue entries are skipped when polled rather than
+	 * having their keys decreased.
+	 */
+	public static void benchmarkDijkstra() {
+		int degree = 8;
+		System.out.println("Dijkstra, " + degree + " edges per node (ms)");
+		for (int n : sizes) {
+			Random rand = new Random(230);
+			int[] targets = new int[n * degree];
+			int[] weights = new int[n * degree];
+			for (int i = 0; i < targets.length; i++) {
+				targets[i] = rand.nextInt(n);
+				weights[i] = 1 + rand.nextInt(1000);
+			}
+			long bestBinary = Long.MAX_VALUE;
+			long bestGeneric = Long.MAX_VALUE;
+			long bestRadix = Long.MAX_VALUE;
+			for (int run = 0; run < runs; run++) {
+				int[] dist = new int[n];
+				long startTime = System.nanoTime();
+				Arrays.fill(dist, Integer.MAX_VALUE);
+				dist[0] = 0;
+				IntPriorityQueue binary = new IntPriorityQueue();
+				binary.add(0, 0);
+				while (!binary.isEmpty()) {
+					int d = binary.peek();
+					int node = binary.pollPayload();
+					if (d > dist[node])
+						continue;
+					for (int e = node * degree; e < (node + 1) * degree; e++) {
+						int next = d + weights[e];
+						if (next < dist[targets[e]]) {
+							dist[targets[e]] = next;
+							binary.add(next, targets[e]);
+						}
+					}
+				}
+				long binaryTime = System.nanoTime();
+				int[] expected = dist.clone();
+				Arrays.fill(dist, Integer.MAX_VALUE);
+				dist[0] = 0;
+				PriorityQueue<Long> generic = new PriorityQueue<Long>();
+				generic.add(0L);
+				while (!generic.isEmpty()) {
+					long packed = generic.poll();
+					int d = (int) (packed >>> 32);
+					int node = (int) packed;
+					if (d > dist[node])
+						continue;
+					for (int e = node * degree; e < (node + 1) * degree; e++) {
+						int next = d + weights[e];
+						if (next < dist[targets[e]]) {
+							dist[targets[e]] = next;
+							generic.add(((long) next << 32) | targets[e]);
+						}
+					}
+				}
+				long genericTime = System.nanoTime();
+				if (!Arrays.equals(expected, dist))
+					throw new IllegalStateException("PriorityQueue disagrees");
+				Arrays.fill(dist, Integer.MAX_VALUE);
+				dist[0] = 0;
+				RadixHeap radix = new RadixHeap();
+				radix.add(0, 0);
+				while (!radix.isEmpty()) {
+					int d = radix.peek();
+					int node = radix.pollPayload();
+					if (d > dist[node])
+						continue;
+					for (int e = node * degree; e < (node + 1) * degree; e++) {
+						int next = d + weights[e];
+						if (next < dist[targets[e]]) {
+							dist[targets[e]] = next;
+							radix.add(next, targets[e]);
+						}
+					}
+				}
+				long radixTime = System.nanoTime();
+				if (!Arrays.equals(expected, dist))
+					throw new IllegalStateException("RadixHeap disagrees");
+				bestBinary = Math.min(bestBinary, binaryTime - startTime);
+				bestGeneric = Math.min(bestGeneric, genericTime - binaryTime);
+				bestRadix = Math.min(bestRadix, radixTime - genericTime);
+			}
+			System.out.println("N = " + n + "   IntPriorityQueue: " + bestBinary
+					/ nanoToMs + "   PriorityQueue: " + bestGeneric / nanoToMs
+					+ "   RadixHeap: " + bestRadix / nanoToMs);
+		}
+		System.out.println();
+	}
+
+	/**
+	 * Adds n random elements to a binary PriorityQueue and to a
+	 * BHeapPriorityQueue and then polls them all. Also prints how many
+	 * different 4 KB pages of the reference array a path from the last
+	 * element to the root touches in each layout, assuming 4-byte references,
+	 * which is how many pages one sift down or up can touch.
+	 */
+	public static void benchmarkBHeap() {
+		System.out.println("Binary heap vs B-heap: add n + poll n (ms), "
+				+ "pages touched by a leaf-to-root path");
+		int referencesPerPage = 1024;
+		for (int n : sizes) {
+			Integer[] elements = randomElements(n, 230);
+			long bestBinary = Long.MAX_VALUE;
+			long bestBHeap = Long.MAX_VALUE;
+			int binaryPages = 0;
+			int bheapPages = 0;
+			for (int run = 0; run < runs; run++) {
+				PriorityQueue<Integer> binary = new PriorityQueue<Integer>();
+				long startTime = System.nanoTime();
+				for (Integer e : elements)
+					binary.add(e);
+				binaryPages = pagesOnPath(binary, referencesPerPage);
+				while (!binary.isEmpty())
+					binary.poll();
+				long midTime = System.nanoTime();
+				BHeapPriorityQueue<Integer> bheap = new BHeapPriorityQueue<Integer>();
+				for (Integer e : elements)
+					bheap.add(e);
+				bheapPages = pagesOnPath(bheap, referencesPerPage);
+				while (!bheap.isEmpty())
+					bheap.poll();
+				long endTime = System.nanoTime();
+				bestBinary = Math.min(bestBinary, midTime - startTime);
+				bestBHeap = Math.min(bestBHeap, endTime - midTime);
+			}
+			System.out.println("N = " + n + "   binary: " + bestBinary
+					/ nanoToMs + " (" + binaryPages + " pages)   B-heap: "
+					+ bestBHeap / nanoToMs + " (" + bheapPages + " pages)");
+		}
+		System.out.println();
+	}
+
+	/**
+	 * Counts the different pages of the reference array on the path from the
+	 * last element of the queue to the root.
+	 * 
+	 * @param q
+	 *            - a non-empty queue
+	 * @param referencesPerPage
+	 *            - the number of references that fit in a page
+	 * 
+	 * @return the number of pages on the path
+	 */
+	private static int pagesOnPath(PriorityQueue<Integer> q,
+			int referencesPerPage) {
+		int index = q.size() - 1;
+		int pages = 1;
+		while (index > 0) {
+			int parent = q.parent(index);
+			if (parent / referencesPerPage != index / referencesPerPage)
+				pages++;
+			index = parent;
+		}
+		return pages;
+	}
+
+	/**
+	 * Has every thread add a random element and then poll, 1000000 times in
+	 * total, first on a PriorityQueue guarded by synchronized and then on a
+	 * FlatCombiningPriorityQueue.
+	 */
+	public static void benchmarkFlatCombining() {
+		int[] threadCounts = { 1, 4, 16, 32 };
+		final int operations = 1000000;
+		final Integer[] elements = randomElements(operations, 230);
+		System.out.println("synchronized vs flat combining: " + operations
+				+ " add + poll pairs (ms)");
+		for (final int threads : threadCounts) {
+			long bestLocked = Long.MAX_VALUE;
+			long bestCombining = Long.MAX_VALUE;
+			for (int run = 0; run < runs; run++) {
+				final PriorityQueue<Integer> locked = new PriorityQueue<Integer>();
+				long startTime = System.nanoTime();
+				runThreads(threads, new Runnable() {
+					public void run() {
+						for (int i = 0; i < operations / threads; i++) {
+							synchronized (locked) {
+								locked.add(elements[i]);
+							}
+							synchronized (locked) {
+								locked.poll();
+							}
+						}
+					}
+				});
+				long midTime = System.nanoTime();
+				final FlatCombiningPriorityQueue<Integer> combining = new FlatCombiningPriorityQueue<Integer>();
+				runThreads(threads, new Runnable() {
+					public void run() {
+						for (int i = 0; i < operations / threads; i++) {
+							combining.add(elements[i]);
+							combining.poll();
+						}
+					}
+				});
+				long endTime = System.nanoTime();
+				bestLocked = Math.min(bestLocked, midTime - startTime);
+				bestCombining = Math.min(bestCombining, endTime - midTime);
+			}
+			System.out.println("threads = " + threads + "   synchronized: "
+					+ bestLocked / nanoToMs + "   flat combining: "
+					+ bestCombining / nanoToMs);
+		}
+		System.out.println();
+	}
+
+	/**
+	 * Runs the specified task on the given number of threads at once and
+	 * waits for all of them to finish.
+	 * 
+	 * @param threads
+	 *            - number of threads
+	 * @param task
+	 *            - the task every thread runs
+	 */
+	private static void runThreads(int threads, Runnable task) {
+		Thread[] running = new Thread[threads];
+		for (int t = 0; t < threads; t++) {
+			running[t] = new Thread(task);
+			running[t].start();
+		}
+		try {
+			for (Thread t : running)
+				t.join();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * Returns n random Integers, boxed ahead of time so that boxing is not
+	 * part of what is timed.
+	 * 
+	 * @param n
+	 *            - number of elements
+	 * @param seed
+	 *            - seed of the random number generator
+	 * 
+	 * @return array of random Integers
+	 */
+	public static Integer[] randomElements(int n, long seed) {
+		Random rand = new Random(seed);
+		Integer[] elements = new Integer[n];
+		for (int i = 0; i < n; i++)
+			elements[i] = rand.nextInt();
+		return elements;
+	}
+}
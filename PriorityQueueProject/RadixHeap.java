@@ -0,0 +1,246 @@
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * A monotone Priority Queue of int keys, for uses like Dijkstra's algorithm
+ * and event simulation where a key is never smaller than the last key
+ * taken out of the queue. Keys are never compared with each other while
+ * they are queued. Instead they are kept in 33 buckets by the highest bit
+ * in which they differ from the last key taken out: bucket 0 holds keys
+ * equal to it and bucket i holds keys that first differ at bit i - 1.
+ * 
+ * When bucket 0 runs empty, the smallest key of the first non-empty bucket
+ * becomes the new last key, and every key in that bucket moves to a lower
+ * bucket. A key can only move down 32 times, so add is O(1) and poll is
+ * O(log C) amortized, where C is the range of the keys. Each key may carry
+ * an int payload, as in IntPriorityQueue.
+ * 
+ * @author derrowap
+ */
+public class RadixHeap {
+	private int[][] keys;
+	private int[][] payloads;
+	private int[] sizes;
+	private int last;
+	private int size;
+
+	/**
+	 * Constructs an empty RadixHeap that accepts any int key until the first
+	 * key is peeked or polled.
+	 */
+	public RadixHeap() {
+		this.keys = new int[33][];
+		this.payloads = new int[33][];
+		for (int i = 0; i < 33; i++) {
+			this.keys[i] = new int[4];
+			this.payloads[i] = new int[4];
+		}
+		this.sizes = new int[33];
+		this.last = Integer.MIN_VALUE;
+		this.size = 0;
+	}
+
+	/**
+	 * Inserts the specified key into this queue.
+	 * 
+	 * @param key
+	 *            - the key to add
+	 * 
+	 * @return true
+	 * 
+	 * @throws IllegalArgumentException
+	 *             - if the key is smaller than the last key peeked or polled
+	 */
+	public boolean add(int key) {
+		return this.add(key, 0);
+	}
+
+	/**
+	 * Inserts the specified key with a payload into this queue.
+	 * 
+	 * @param key
+	 *            - the key to add
+	 * @param payload
+	 *            - the payload stored with the key
+	 * 
+	 * @return true
+	 * 
+	 * @throws IllegalArgumentException
+	 *             - if the key is smaller than the last key peeked or polled
+	 */
+	public boolean add(int key, int payload) {
+		if (key < this.last)
+			throw new IllegalArgumentException("Key " + key
+					+ " is smaller than the last key " + this.last);
+		this.push(bucket(key ^ this.last), key, payload);
+		this.size++;
+		return true;
+	}
+
+	/**
+	 * Inserts the specified key into this queue.
+	 * 
+	 * @param key
+	 *            - the key to add
+	 * 
+	 * @return true
+	 * 
+	 * @throws IllegalArgumentException
+	 *             - if the key is smaller than the last key peeked or polled
+	 */
+	public boolean offer(int key) {
+		return this.add(key);
+	}
+
+	/**
+	 * Retrieves, but does not remove, the smallest key of this queue. Keys
+	 * added afterwards must not be smaller than it.
+	 * 
+	 * @return the smallest key of this queue
+	 * 
+	 * @throws NoSuchElementException
+	 *             - if this queue is empty
+	 */
+	public int peek() {
+		this.settle();
+		return this.last;
+	}
+
+	/**
+	 * Retrieves, but does not remove, the payload of the smallest key of this
+	 * queue. Keys added without a payload have a payload of 0.
+	 * 
+	 * @return the payload of the smallest key of this queue
+	 * 
+	 * @throws NoSuchElementException
+	 *             - if this queue is empty
+	 */
+	public int peekPayload() {
+		this.settle();
+		return this.payloads[0][this.sizes[0] - 1];
+	}
+
+	/**
+	 * Retrieves and removes the smallest key of this queue.
+	 * 
+	 * @return the smallest key of this queue
+	 * 
+	 * @throws NoSuchElementException
+	 *             - if this queue is empty
+	 */
+	public int poll() {
+		this.settle();
+		this.sizes[0]--;
+		this.size--;
+		return this.last;
+	}
+
+	/**
+	 * Removes the smallest key of this queue and returns its payload.
+	 * 
+	 * @return the payload of the smallest key of this queue
+	 * 
+	 * @throws NoSuchElementException
+	 *             - if this queue is empty
+	 */
+	public int pollPayload() {
+		int payload = this.peekPayload();
+		this.sizes[0]--;
+		this.size--;
+		return payload;
+	}
+
+	/**
+	 * Removes all of the keys from this queue. Any int key is accepted again
+	 * afterwards.
+	 */
+	public void clear() {
+		Arrays.fill(this.sizes, 0);
+		this.last = Integer.MIN_VALUE;
+		this.size = 0;
+	}
+
+	/**
+	 * Returns TRUE if this queue has no keys and FALSE otherwise.
+	 * 
+	 * @return boolean if this queue is empty
+	 */
+	public boolean isEmpty() {
+		return this.size == 0;
+	}
+
+	/**
+	 * Returns the number of keys in this queue.
+	 * 
+	 * @return the number of keys in this queue
+	 */
+	public int size() {
+		return this.size;
+	}
+
+	/**
+	 * Returns the bucket of a key from its xor with the last key: one more
+	 * than the index of the highest bit set, or 0 if no bit is set.
+	 * 
+	 * @param difference
+	 *            - the key xor the last key
+	 * 
+	 * @return the bucket the key belongs in
+	 */
+	private static int bucket(int difference) {
+		return 32 - Integer.numberOfLeadingZeros(difference);
+	}
+
+	/**
+	 * Makes sure bucket 0 is not empty. If it is, the smallest key of the
+	 * first non-empty bucket becomes the last key and the keys of that bucket
+	 * are moved to the lower buckets they now belong in.
+	 * 
+	 * @throws NoSuchElementException
+	 *             - if this queue is empty
+	 */
+	private void settle() {
+		if (this.size == 0)
+			throw new NoSuchElementException();
+		if (this.sizes[0] > 0)
+			return;
+		int i = 1;
+		while (this.sizes[i] == 0)
+			i++;
+		int[] bucketKeys = this.keys[i];
+		int[] bucketPayloads = this.payloads[i];
+		int count = this.sizes[i];
+		int min = bucketKeys[0];
+		for (int j = 1; j < count; j++)
+			if (bucketKeys[j] < min)
+				min = bucketKeys[j];
+		this.last = min;
+		this.sizes[i] = 0;
+		for (int j = 0; j < count; j++)
+			this.push(bucket(bucketKeys[j] ^ min), bucketKeys[j],
+					bucketPayloads[j]);
+	}
+
+	/**
+	 * Appends a key and its payload to the specified bucket, doubling the
+	 * bucket's arrays if they are full.
+	 * 
+	 * @param bucket
+	 *            - the bucket to append to
+	 * @param key
+	 *            - the key
+	 * @param payload
+	 *            - the payload of the key
+	 */
+	private void push(int bucket, int key, int payload) {
+		int count = this.sizes[bucket];
+		if (count == this.keys[bucket].length) {
+			this.keys[bucket] = Arrays.copyOf(this.keys[bucket], count * 2);
+			this.payloads[bucket] = Arrays.copyOf(this.payloads[bucket],
+					count * 2);
+		}
+		this.keys[bucket][count] = key;
+		this.payloads[bucket][count] = payload;
+		this.sizes[bucket] = count + 1;
+	}
+}
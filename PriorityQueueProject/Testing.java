@@ -1,5 +1,19 @@
 import static org.junit.Assert.*;
 
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
 import org.junit.AfterClass;
 import org.junit.Test;
 
@@ -165,6 +179,1006 @@ public class Testing {
 		points += 5;
 	}
 	
+	@Test
+	public void testRemoveRebalancesUp(){
+		PriorityQueue<Integer> q = new PriorityQueue<Integer>();
+		int[] nums = {1, 10, 2, 11, 12, 3, 4};
+		for (int n : nums)
+			assertTrue(q.offer(n));
+		assertTrue(q.remove(new Integer(11)));
+		Integer[] temp = q.toArray(new Integer[0]);
+		Integer[] test = {1, 4, 2, 10, 12, 3};
+		for (int i = 0; i < temp.length; i++){
+			assertEquals(test[i], temp[i]);
+		}
+		Integer[] order = {1, 2, 3, 4, 10, 12};
+		for (int i = 0; i < order.length; i++){
+			assertEquals(order[i], q.poll());
+		}
+		assertEquals(null, q.poll());
+	}
+	
+	@Test
+	public void testContainsWithDuplicates(){
+		PriorityQueue<Integer> q = new PriorityQueue<Integer>();
+		assertTrue(q.offer(4));
+		assertTrue(q.offer(2));
+		assertTrue(q.contains(2));
+		assertTrue(q.offer(2));
+		assertTrue(q.offer(7));
+		assertTrue(q.remove(new Integer(2)));
+		assertTrue(q.contains(2));
+		assertEquals(new Integer(2), q.poll());
+		assertFalse(q.contains(2));
+		assertFalse(q.remove(new Integer(2)));
+		assertTrue(q.contains(4));
+		assertTrue(q.contains(7));
+		q.clear();
+		assertFalse(q.contains(4));
+		assertTrue(q.offer(4));
+		assertTrue(q.contains(4));
+	}
+	
+	@Test
+	public void testLogBehaviorOfRemove(){
+		PriorityQueue<Integer> q = new PriorityQueue<Integer>();
+		int nums = 1000000;
+		for (int i = 0; i < nums; i++){
+			q.offer(i);
+		}
+		for (int i = nums - 1; i >= 0; i -= 2){
+			assertTrue(q.contains(i));
+			assertTrue(q.remove(new Integer(i)));
+			assertFalse(q.contains(i));
+		}
+		assertEquals(nums / 2, q.size());
+		for (int i = 0; i < nums; i += 2){
+			assertEquals(new Integer(i), q.poll());
+		}
+		assertEquals(0, q.size());
+	}
+	
+	@Test
+	public void testChangePriority(){
+		PriorityQueue<Integer> q = new PriorityQueue<Integer>();
+		PriorityQueue.Handle<Integer> five = q.insert(5);
+		PriorityQueue.Handle<Integer> three = q.insert(3);
+		PriorityQueue.Handle<Integer> eight = q.insert(8);
+		assertEquals(new Integer(5), five.getElement());
+		q.decreaseKey(eight, 1);
+		assertEquals(new Integer(1), q.peek());
+		assertFalse(q.contains(8));
+		assertTrue(q.contains(1));
+		q.changePriority(three, 9);
+		try {
+			q.decreaseKey(five, 6);
+			fail("Did not throw IllegalArgumentException");
+		} catch (IllegalArgumentException e){
+			// expected
+		}
+		assertEquals(new Integer(1), q.poll());
+		assertFalse(eight.isQueued());
+		try {
+			q.changePriority(eight, 0);
+			fail("Did not throw IllegalArgumentException");
+		} catch (IllegalArgumentException e){
+			// expected
+		}
+		assertTrue(q.remove(five));
+		assertFalse(q.remove(five));
+		assertEquals(new Integer(9), q.poll());
+		assertEquals(null, q.poll());
+	}
+	
+	@Test
+	public void testChangePriorityRandom(){
+		PriorityQueue<Integer> q = new PriorityQueue<Integer>();
+		ArrayList<PriorityQueue.Handle<Integer>> handles = new ArrayList<PriorityQueue.Handle<Integer>>();
+		Random rand = new Random(230);
+		for (int i = 0; i < 10000; i++){
+			handles.add(q.insert(rand.nextInt(100000)));
+		}
+		for (int i = 0; i < 20000; i++){
+			q.changePriority(handles.get(rand.nextInt(handles.size())), rand.nextInt(100000));
+		}
+		int previous = Integer.MIN_VALUE;
+		while (q.size() > 0){
+			int next = q.poll();
+			assertTrue(previous <= next);
+			previous = next;
+		}
+	}
+	
+	@Test
+	public void testIntPriorityQueue(){
+		IntPriorityQueue q = new IntPriorityQueue(2);
+		assertTrue(q.isEmpty());
+		try {
+			q.poll();
+			fail("Did not throw NoSuchElementException");
+		} catch (NoSuchElementException e){
+			// expected
+		}
+		assertTrue(q.add(3));
+		assertTrue(q.add(5));
+		assertTrue(q.add(2));
+		assertTrue(q.add(4));
+		assertTrue(q.add(2));
+		int[] a = q.toArray();
+		int[] test = {2, 2, 3, 5, 4};
+		for (int i = 0; i < test.length; i++){
+			assertEquals(test[i], a[i]);
+		}
+		assertEquals(2, q.peek());
+		assertEquals(2, q.poll());
+		assertEquals(2, q.poll());
+		assertEquals(3, q.poll());
+		assertEquals(4, q.poll());
+		assertEquals(5, q.poll());
+		assertEquals(0, q.size());
+	}
+	
+	@Test
+	public void testPayloads(){
+		IntPriorityQueue q = new IntPriorityQueue();
+		LongPriorityQueue l = new LongPriorityQueue();
+		Random rand = new Random(230);
+		for (int i = 0; i < 10000; i++){
+			int key = rand.nextInt(1000);
+			q.add(key, -key);
+			l.add(key * 10000000000L, -key);
+		}
+		long previous = Long.MIN_VALUE;
+		while (!q.isEmpty()){
+			assertEquals(-q.peek(), q.peekPayload());
+			assertEquals(-l.peek() / 10000000000L, l.peekPayload());
+			int key = q.peek();
+			assertEquals(-key, q.pollPayload());
+			assertEquals(key * 10000000000L, l.poll());
+			assertTrue(previous <= key);
+			previous = key;
+		}
+		assertTrue(l.isEmpty());
+	}
+	
+	@Test
+	public void testHeapify(){
+		Integer[] nums = {9, 4, 7, 1, 8, 2, 6, 3, 5, 0};
+		PriorityQueue<Integer> q = new PriorityQueue<Integer>(nums);
+		assertEquals(10, q.size());
+		Integer[] temp = q.toArray(new Integer[0]);
+		for (int i = 1; i < temp.length; i++){
+			assertTrue(temp[(i - 1) / 2] <= temp[i]);
+		}
+		assertTrue(q.contains(7));
+		assertTrue(q.addAll(Arrays.asList(12, 10, 11, -1)));
+		assertFalse(q.addAll(new ArrayList<Integer>()));
+		try {
+			q.addAll(Arrays.asList(13, null));
+			fail("Did not throw NullPointerException");
+		} catch (NullPointerException e){
+			// expected
+		}
+		assertEquals(14, q.size());
+		for (int i = -1; i <= 12; i++){
+			assertEquals(new Integer(i), q.poll());
+		}
+		assertEquals(null, q.poll());
+	}
+	
+	@Test
+	public void testLinearHeapify(){
+		final int[] comparisons = new int[1];
+		class Counted implements Comparable<Counted> {
+			int value;
+			Counted(int value) {
+				this.value = value;
+			}
+			public int compareTo(Counted o) {
+				comparisons[0]++;
+				return Integer.compare(this.value, o.value);
+			}
+		}
+		int nums = 100000;
+		ArrayList<Counted> list = new ArrayList<Counted>();
+		for (int i = nums; i > 0; i--){
+			list.add(new Counted(i));
+		}
+		PriorityQueue<Counted> q = new PriorityQueue<Counted>(list);
+		assertTrue(comparisons[0] <= 2 * nums);
+		for (int i = 1; i <= nums; i++){
+			assertEquals(i, q.poll().value);
+		}
+	}
+	
+	@Test
+	public void testArity(){
+		try {
+			new PriorityQueue<Integer>(1);
+			fail("Did not throw IllegalArgumentException");
+		} catch (IllegalArgumentException e){
+			// expected
+		}
+		PriorityQueue<Integer> q = new PriorityQueue<Integer>(3);
+		int[] nums = {6, 5, 4, 3, 2, 1, 0};
+		for (int n : nums)
+			assertTrue(q.offer(n));
+		Integer[] temp = q.toArray(new Integer[0]);
+		Integer[] test = {0, 1, 5, 4, 6, 3, 2};
+		for (int i = 0; i < temp.length; i++){
+			assertEquals(test[i], temp[i]);
+		}
+		for (int arity = 2; arity <= 8; arity++){
+			q = new PriorityQueue<Integer>(arity);
+			Random rand = new Random(arity);
+			for (int i = 0; i < 5000; i++){
+				q.offer(rand.nextInt(1000));
+			}
+			for (int i = 0; i < 1000; i++){
+				q.remove(new Integer(rand.nextInt(1000)));
+			}
+			int previous = Integer.MIN_VALUE;
+			while (q.size() > 0){
+				int next = q.poll();
+				assertTrue(previous <= next);
+				previous = next;
+			}
+		}
+	}
+	
+	@Test
+	public void testMultiQueue() throws InterruptedException{
+		final MultiQueue<Integer> q = new MultiQueue<Integer>(4);
+		assertEquals(null, q.poll());
+		assertTrue(q.add(3));
+		assertTrue(q.add(1));
+		assertEquals(2, q.size());
+		assertEquals(new Integer(1), q.peek());
+		assertTrue(q.poll() != null);
+		assertTrue(q.poll() != null);
+		assertEquals(null, q.poll());
+		
+		final int perThread = 20000;
+		final boolean[] seen = new boolean[4 * perThread];
+		final AtomicInteger polled = new AtomicInteger(0);
+		Thread[] threads = new Thread[4];
+		for (int t = 0; t < threads.length; t++){
+			final int offset = t * perThread;
+			threads[t] = new Thread(){
+				public void run(){
+					for (int i = 0; i < perThread; i++){
+						q.add(offset + i);
+						if (i % 2 == 1){
+							markSeen(seen, q.poll(), polled);
+						}
+					}
+				}
+			};
+			threads[t].start();
+		}
+		for (Thread t : threads)
+			t.join();
+		while (!q.isEmpty()){
+			markSeen(seen, q.poll(), polled);
+		}
+		assertEquals(seen.length, polled.get());
+		for (boolean b : seen)
+			assertTrue(b);
+	}
+	
+	private static synchronized void markSeen(boolean[] seen, Integer e, AtomicInteger polled){
+		assertTrue(e != null);
+		assertFalse(seen[e]);
+		seen[e] = true;
+		polled.incrementAndGet();
+	}
+	
+	@Test
+	public void testPairingHeap(){
+		PairingHeap<Integer> q = new PairingHeap<Integer>();
+		assertEquals(null, q.poll());
+		assertEquals(null, q.peek());
+		assertTrue(q.add(5));
+		assertTrue(q.add(2));
+		assertTrue(q.add(8));
+		assertTrue(q.add(2));
+		assertEquals(4, q.size());
+		assertEquals(new Integer(2), q.peek());
+		assertTrue(q.contains(8));
+		assertTrue(q.remove((Object) 8));
+		assertFalse(q.remove((Object) 8));
+		assertFalse(q.contains(8));
+		assertEquals(new Integer(2), q.poll());
+		assertEquals(new Integer(2), q.poll());
+		assertEquals(new Integer(5), q.poll());
+		assertTrue(q.isEmpty());
+		
+		Random rand = new Random(230);
+		java.util.PriorityQueue<Integer> expected = new java.util.PriorityQueue<Integer>();
+		for (int i = 0; i < 20000; i++){
+			int op = rand.nextInt(4);
+			if (op < 2){
+				int e = rand.nextInt(1000);
+				q.add(e);
+				expected.add(e);
+			} else if (op == 2){
+				assertEquals(expected.poll(), q.poll());
+			} else {
+				Integer e = rand.nextInt(1000);
+				assertEquals(expected.remove(e), q.remove(e));
+			}
+			assertEquals(expected.size(), q.size());
+			assertEquals(expected.peek(), q.peek());
+		}
+	}
+	
+	@Test
+	public void testMeld(){
+		PairingHeap<Integer> a = new PairingHeap<Integer>();
+		PairingHeap<Integer> b = new PairingHeap<Integer>();
+		for (int i = 0; i < 100; i += 2){
+			a.add(i);
+			b.add(i + 1);
+		}
+		a.meld(b);
+		assertEquals(100, a.size());
+		assertTrue(b.isEmpty());
+		assertEquals(null, b.peek());
+		a.meld(b);
+		assertEquals(100, a.size());
+		b.meld(a);
+		assertEquals(100, b.size());
+		assertTrue(a.isEmpty());
+		for (int i = 0; i < 100; i++){
+			assertEquals(new Integer(i), b.poll());
+		}
+		assertTrue(b.isEmpty());
+		try {
+			b.meld(b);
+			fail("Did not throw IllegalArgumentException");
+		} catch (IllegalArgumentException e){
+			// expected
+		}
+	}
+	
+	@Test
+	public void testBound(){
+		PriorityQueue<Integer> q = new PriorityQueue<Integer>();
+		assertEquals(0, q.getBound());
+		q.setBound(3);
+		assertTrue(q.add(5));
+		assertTrue(q.add(1));
+		assertTrue(q.add(7));
+		assertFalse(q.add(0));
+		assertFalse(q.add(1));
+		assertEquals(3, q.size());
+		assertTrue(q.add(6));
+		assertEquals(3, q.size());
+		assertEquals(new Integer(5), q.peek());
+		assertFalse(q.contains(1));
+		PriorityQueue.Handle<Integer> rejected = q.insert(2);
+		assertFalse(rejected.isQueued());
+		PriorityQueue.Handle<Integer> nine = q.insert(9);
+		assertTrue(nine.isQueued());
+		assertFalse(q.contains(5));
+		assertTrue(q.remove(nine));
+		assertEquals(2, q.size());
+		q.setBound(1);
+		assertEquals(1, q.size());
+		assertEquals(new Integer(7), q.peek());
+		try {
+			q.setBound(-1);
+			fail("Did not throw IllegalArgumentException");
+		} catch (IllegalArgumentException e){
+			// expected
+		}
+		
+		Random rand = new Random(230);
+		Integer[] elements = new Integer[10000];
+		q = new PriorityQueue<Integer>(4);
+		q.setBound(100);
+		for (int i = 0; i < elements.length; i++){
+			elements[i] = rand.nextInt();
+			q.add(elements[i]);
+			assertTrue(q.size() <= 100);
+		}
+		Arrays.sort(elements);
+		for (int i = elements.length - 100; i < elements.length; i++){
+			assertEquals(elements[i], q.poll());
+		}
+		assertTrue(q.isEmpty());
+	}
+	
+	@Test
+	public void testExternalPriorityQueue() throws IOException{
+		Path directory = Files.createTempDirectory("pqtest");
+		ExternalPriorityQueue<Integer> q = new ExternalPriorityQueue<Integer>(100, directory);
+		assertEquals(null, q.poll());
+		assertEquals(null, q.peek());
+		Random rand = new Random(230);
+		java.util.PriorityQueue<Integer> expected = new java.util.PriorityQueue<Integer>();
+		for (int i = 0; i < 20000; i++){
+			if (rand.nextInt(3) < 2){
+				int e = rand.nextInt(5000);
+				q.add(e);
+				expected.add(e);
+			} else {
+				assertEquals(expected.poll(), q.poll());
+			}
+			assertEquals(expected.size(), q.size());
+			assertEquals(expected.peek(), q.peek());
+		}
+		assertTrue(q.runCount() > 0);
+		while (!expected.isEmpty()){
+			assertEquals(expected.poll(), q.poll());
+		}
+		assertTrue(q.isEmpty());
+		assertEquals(0, q.runCount());
+		for (int i = 0; i < 1000; i++){
+			q.add(i);
+		}
+		q.close();
+		assertTrue(q.isEmpty());
+		try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)){
+			assertFalse(files.iterator().hasNext());
+		}
+		Files.delete(directory);
+	}
+	
+	@Test
+	public void testExternalPriorityQueueOwnedDirectory() throws IOException{
+		ExternalPriorityQueue<Integer> q = new ExternalPriorityQueue<Integer>(10);
+		Path directory = q.getDirectory();
+		assertTrue(Files.isDirectory(directory));
+		for (int i = 0; i < 100; i++){
+			q.add(i);
+		}
+		assertTrue(q.runCount() > 0);
+		assertEquals(0, (int) q.poll());
+		q.close();
+		assertFalse(Files.exists(directory));
+		
+		// a directory passed in is left in place
+		directory = Files.createTempDirectory("pqtest");
+		q = new ExternalPriorityQueue<Integer>(10, directory);
+		assertEquals(directory, q.getDirectory());
+		for (int i = 0; i < 100; i++){
+			q.add(i);
+		}
+		q.close();
+		assertTrue(Files.isDirectory(directory));
+		Files.delete(directory);
+	}
+	
+	@Test
+	public void testExternalPriorityQueueMergeFactor() throws IOException{
+		Path directory = Files.createTempDirectory("pqtest");
+		ExternalPriorityQueue<Integer> q = new ExternalPriorityQueue<Integer>(10, directory, 4);
+		Random rand = new Random(231);
+		java.util.PriorityQueue<Integer> expected = new java.util.PriorityQueue<Integer>();
+		for (int i = 0; i < 5000; i++){
+			if (rand.nextInt(4) < 3){
+				int e = rand.nextInt(1000);
+				q.add(e);
+				expected.add(e);
+			} else {
+				assertEquals(expected.poll(), q.poll());
+			}
+			assertTrue(q.runCount() <= 4);
+			assertEquals(expected.size(), q.size());
+		}
+		int files = 0;
+		try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory)){
+			for (Path file : stream) files++;
+		}
+		assertEquals(q.runCount(), files);
+		while (!expected.isEmpty()){
+			assertEquals(expected.poll(), q.poll());
+		}
+		assertTrue(q.isEmpty());
+		q.close();
+		Files.delete(directory);
+		try {
+			new ExternalPriorityQueue<Integer>(10, directory, 1);
+			fail();
+		} catch (IllegalArgumentException e){
+			// expected
+		}
+	}
+
+	@Test
+	public void testDrainTo(){
+		PriorityQueue<Integer> q = new PriorityQueue<Integer>();
+		Integer[] dest = new Integer[4];
+		assertEquals(0, q.drainTo(dest, 4));
+		assertTrue(q.pollBatch(3).isEmpty());
+		for (int i = 9; i >= 0; i--){
+			q.add(i);
+		}
+		assertEquals(3, q.drainTo(dest, 3));
+		assertArrayEquals(new Integer[]{0, 1, 2, null}, dest);
+		assertEquals(4, q.drainTo(dest, 10));
+		assertArrayEquals(new Integer[]{3, 4, 5, 6}, dest);
+		assertEquals(3, q.size());
+		assertTrue(q.contains(7));
+		assertEquals(Arrays.asList(7, 8), q.pollBatch(2));
+		assertFalse(q.contains(7));
+		assertEquals(Arrays.asList(9), q.pollBatch(5));
+		assertTrue(q.isEmpty());
+		try {
+			q.drainTo(dest, -1);
+			fail("Did not throw IllegalArgumentException");
+		} catch (IllegalArgumentException e){
+			// expected
+		}
+		
+		Random rand = new Random(230);
+		Integer[] elements = new Integer[1000];
+		for (int i = 0; i < elements.length; i++){
+			elements[i] = rand.nextInt(100);
+		}
+		q = new PriorityQueue<Integer>(elements);
+		Arrays.sort(elements);
+		Integer[] batch = new Integer[64];
+		int index = 0;
+		while (!q.isEmpty()){
+			int count = q.drainTo(batch, batch.length);
+			for (int i = 0; i < count; i++){
+				assertEquals(elements[index++], batch[i]);
+			}
+		}
+		assertEquals(elements.length, index);
+	}
+	
+	@Test
+	public void testMinMaxPriorityQueue(){
+		MinMaxPriorityQueue<Integer> q = new MinMaxPriorityQueue<Integer>();
+		assertEquals(null, q.peekMax());
+		assertEquals(null, q.pollMax());
+		assertEquals(null, q.poll());
+		q.add(5);
+		assertEquals(new Integer(5), q.peek());
+		assertEquals(new Integer(5), q.peekMax());
+		q.add(3);
+		q.add(9);
+		q.add(7);
+		assertEquals(new Integer(3), q.peek());
+		assertEquals(new Integer(9), q.peekMax());
+		assertEquals(new Integer(9), q.pollMax());
+		assertEquals(new Integer(7), q.pollMax());
+		assertEquals(new Integer(3), q.poll());
+		assertEquals(new Integer(5), q.pollMax());
+		assertTrue(q.isEmpty());
+		
+		Random rand = new Random(230);
+		ArrayList<Integer> expected = new ArrayList<Integer>();
+		for (int i = 0; i < 1000; i++){
+			expected.add(rand.nextInt(500));
+		}
+		q = new MinMaxPriorityQueue<Integer>(expected);
+		for (int i = 0; i < 20000; i++){
+			int op = rand.nextInt(5);
+			if (op < 2){
+				int e = rand.nextInt(500);
+				q.add(e);
+				expected.add(e);
+			} else if (expected.isEmpty()){
+				assertEquals(null, q.poll());
+			} else if (op == 2){
+				Integer min = java.util.Collections.min(expected);
+				expected.remove(min);
+				assertEquals(min, q.poll());
+			} else if (op == 3){
+				Integer max = java.util.Collections.max(expected);
+				expected.remove(max);
+				assertEquals(max, q.pollMax());
+			} else {
+				Integer e = rand.nextInt(500);
+				assertEquals(expected.remove(e), q.remove(e));
+			}
+			assertEquals(expected.size(), q.size());
+			if (!expected.isEmpty()){
+				assertEquals(java.util.Collections.min(expected), q.peek());
+				assertEquals(java.util.Collections.max(expected), q.peekMax());
+			}
+		}
+	}
+	
+	@Test
+	public void testRadixHeap(){
+		RadixHeap q = new RadixHeap();
+		try {
+			q.poll();
+			fail("Did not throw NoSuchElementException");
+		} catch (NoSuchElementException e){
+			// expected
+		}
+		q.add(-5, 1);
+		q.add(7, 2);
+		q.add(3, 3);
+		assertEquals(-5, q.peek());
+		assertEquals(1, q.pollPayload());
+		q.add(-5);
+		assertEquals(-5, q.poll());
+		try {
+			q.add(-6);
+			fail("Did not throw IllegalArgumentException");
+		} catch (IllegalArgumentException e){
+			// expected
+		}
+		assertEquals(3, q.peekPayload());
+		assertEquals(3, q.poll());
+		assertEquals(7, q.poll());
+		assertTrue(q.isEmpty());
+		q.clear();
+		q.add(-6);
+		assertEquals(-6, q.poll());
+		
+		Random rand = new Random(230);
+		java.util.PriorityQueue<Long> expected = new java.util.PriorityQueue<Long>();
+		int last = 0;
+		for (int i = 0; i < 50000; i++){
+			if (expected.isEmpty() || rand.nextInt(3) < 2){
+				int key = last + rand.nextInt(rand.nextBoolean() ? 10 : 100000);
+				q.add(key, i);
+				expected.add(((long) key << 32) | i);
+			} else {
+				long e = expected.poll();
+				last = (int) (e >>> 32);
+				assertEquals(last, q.peek());
+				q.pollPayload();
+			}
+			assertEquals(expected.size(), q.size());
+		}
+		while (!expected.isEmpty()){
+			assertEquals((int) (expected.poll() >>> 32), q.poll());
+		}
+		assertTrue(q.isEmpty());
+	}
+	
+	@Test
+	public void testSortedIterator(){
+		PriorityQueue<Integer> q = new PriorityQueue<Integer>();
+		assertFalse(q.sortedIterator().hasNext());
+		Random rand = new Random(230);
+		for (int arity = 2; arity <= 5; arity++){
+			q = new PriorityQueue<Integer>(arity);
+			Integer[] elements = new Integer[1000];
+			for (int i = 0; i < elements.length; i++){
+				elements[i] = rand.nextInt(200);
+				q.add(elements[i]);
+			}
+			Object[] before = q.toArray();
+			Arrays.sort(elements);
+			Iterator<Integer> it = q.sortedIterator();
+			for (int i = 0; i < elements.length; i++){
+				assertTrue(it.hasNext());
+				assertEquals(elements[i], it.next());
+			}
+			assertFalse(it.hasNext());
+			assertArrayEquals(before, q.toArray());
+		}
+		
+		Iterator<Integer> it = q.sortedIterator();
+		it.next();
+		q.poll();
+		try {
+			it.next();
+			fail("Did not throw ConcurrentModificationException");
+		} catch (ConcurrentModificationException e){
+			// expected
+		}
+		PriorityQueue.Handle<Integer> handle = q.insert(500);
+		it = q.sortedIterator();
+		q.changePriority(handle, -1);
+		try {
+			it.next();
+			fail("Did not throw ConcurrentModificationException");
+		} catch (ConcurrentModificationException e){
+			// expected
+		}
+		
+		q = new PriorityQueue<Integer>();
+		q.setBound(4);
+		for (int i = 5; i <= 8; i++)
+			q.add(i);
+		it = q.sortedIterator();
+		assertEquals(5, (int) it.next());
+		q.add(100);
+		try {
+			it.next();
+			fail("Did not throw ConcurrentModificationException");
+		} catch (ConcurrentModificationException e){
+			// expected
+		}
+	}
+	
+	@Test
+	public void testStable(){
+		Random rand = new Random(230);
+		for (int arity = 2; arity <= 4; arity++){
+			PriorityQueue<Ticket> q = new PriorityQueue<Ticket>(arity, true);
+			ArrayList<Ticket> added = new ArrayList<Ticket>();
+			for (int i = 0; i < 2000; i++){
+				Ticket t = new Ticket(rand.nextInt(10), i);
+				added.add(t);
+				q.add(t);
+				if (i % 3 == 0){
+					added.remove(q.poll());
+				}
+			}
+			ArrayList<Ticket> expected = new ArrayList<Ticket>(added);
+			java.util.Collections.sort(expected); // stable merge sort
+			Iterator<Ticket> it = q.sortedIterator();
+			for (Ticket t : expected){
+				assertTrue(t == it.next());
+			}
+			for (Ticket t : expected){
+				assertTrue(t == q.poll());
+			}
+			assertTrue(q.isEmpty());
+		}
+	}
+	
+	/**
+	 * Element whose priority ignores the order it was created in.
+	 */
+	private static class Ticket implements Comparable<Ticket>{
+		private int priority;
+		private int order;
+		
+		private Ticket(int priority, int order){
+			this.priority = priority;
+			this.order = order;
+		}
+		
+		@Override
+		public int compareTo(Ticket other){
+			return Integer.compare(this.priority, other.priority);
+		}
+		
+		@Override
+		public String toString(){
+			return this.priority + "#" + this.order;
+		}
+	}
+	
+	@Test
+	public void testBHeap(){
+		Random rand = new Random(230);
+		for (int levels = 2; levels <= 4; levels++){
+			BHeapPriorityQueue<Integer> q = new BHeapPriorityQueue<Integer>(levels);
+			assertEquals((1 << levels) - 1, q.getPageSize());
+			for (int i = 1; i < 5000; i++){
+				assertEquals(i, q.parent(q.child(i, 0)));
+				assertEquals(i, q.parent(q.child(i, 1)));
+				assertTrue(q.parent(i) < i);
+			}
+			Integer[] heapified = new Integer[2000];
+			for (int i = 0; i < heapified.length; i++){
+				heapified[i] = rand.nextInt(1000);
+			}
+			q.addAll(Arrays.asList(heapified));
+			Arrays.sort(heapified);
+			for (Integer e : heapified){
+				assertEquals(e, q.poll());
+			}
+			java.util.PriorityQueue<Integer> expected = new java.util.PriorityQueue<Integer>();
+			for (int i = 0; i < 20000; i++){
+				int op = rand.nextInt(4);
+				if (op < 2){
+					int e = rand.nextInt(1000);
+					q.add(e);
+					expected.add(e);
+				} else if (op == 2){
+					assertEquals(expected.poll(), q.poll());
+				} else {
+					Integer e = rand.nextInt(1000);
+					assertEquals(expected.remove(e), q.remove(e));
+				}
+				assertEquals(expected.size(), q.size());
+				assertEquals(expected.peek(), q.peek());
+			}
+			ArrayList<Integer> more = new ArrayList<Integer>();
+			for (int i = 0; i < 3000; i++){
+				more.add(rand.nextInt(1000));
+			}
+			q.addAll(more);
+			expected.addAll(more);
+			Iterator<Integer> it = q.sortedIterator();
+			Integer[] sorted = expected.toArray(new Integer[0]);
+			Arrays.sort(sorted);
+			for (Integer e : sorted){
+				assertEquals(e, it.next());
+			}
+			while (!expected.isEmpty()){
+				assertEquals(expected.poll(), q.poll());
+			}
+		}
+		try {
+			new BHeapPriorityQueue<Integer>(1);
+			fail("Did not throw IllegalArgumentException");
+		} catch (IllegalArgumentException e){
+			// expected
+		}
+	}
+	
+	@Test
+	public void testFlatCombining() throws InterruptedException{
+		final FlatCombiningPriorityQueue<Integer> q = new FlatCombiningPriorityQueue<Integer>();
+		assertEquals(null, q.poll());
+		assertEquals(null, q.peek());
+		q.add(3);
+		q.add(1);
+		q.add(2);
+		assertEquals(3, q.size());
+		assertEquals(new Integer(1), q.peek());
+		assertEquals(new Integer(1), q.poll());
+		assertEquals(new Integer(2), q.poll());
+		assertEquals(new Integer(3), q.poll());
+		assertTrue(q.isEmpty());
+		
+		final int perThread = 20000;
+		final boolean[] seen = new boolean[8 * perThread];
+		final AtomicInteger polled = new AtomicInteger(0);
+		Thread[] threads = new Thread[8];
+		for (int t = 0; t < threads.length; t++){
+			final int offset = t * perThread;
+			threads[t] = new Thread(){
+				public void run(){
+					for (int i = 0; i < perThread; i++){
+						q.add(offset + i);
+						if (i % 2 == 1){
+							markSeen(seen, q.poll(), polled);
+						}
+					}
+				}
+			};
+			threads[t].start();
+		}
+		for (Thread t : threads)
+			t.join();
+		assertEquals(seen.length / 2, q.size());
+		Integer last = Integer.MIN_VALUE;
+		while (!q.isEmpty()){
+			Integer e = q.poll();
+			assertTrue(last <= e);
+			last = e;
+			markSeen(seen, e, polled);
+		}
+		assertEquals(seen.length, polled.get());
+		for (boolean b : seen)
+			assertTrue(b);
+	}
+	
+	@Test
+	public void testTimingWheel(){
+		TimingWheel<String> wheel = new TimingWheel<String>(4, 2);
+		TimingWheel.Timer<String> soon = wheel.schedule("soon", 2);
+		TimingWheel.Timer<String> later = wheel.schedule("later", 9);
+		TimingWheel.Timer<String> far = wheel.schedule("far", 40);
+		wheel.schedule("past", -5);
+		assertEquals(4, wheel.size());
+		assertEquals(Arrays.asList("past"), wheel.tick());
+		assertEquals(Arrays.asList("soon"), wheel.tick());
+		assertFalse(soon.isPending());
+		assertFalse(wheel.cancel(soon));
+		assertTrue(wheel.cancel(later));
+		assertFalse(wheel.cancel(later));
+		assertTrue(wheel.advanceTo(39).isEmpty());
+		assertTrue(far.isPending());
+		assertEquals(Arrays.asList("far"), wheel.advanceTo(45));
+		assertTrue(wheel.isEmpty());
+		assertEquals(45, wheel.getTime());
+		
+		Random rand = new Random(230);
+		wheel = new TimingWheel<String>(8, 2);
+		ArrayList<TimingWheel.Timer<String>> pending = new ArrayList<TimingWheel.Timer<String>>();
+		for (int i = 0; i < 20000; i++){
+			int op = rand.nextInt(4);
+			if (op < 2){
+				long deadline = wheel.getTime() + 1 + rand.nextInt(rand.nextBoolean() ? 10 : 500);
+				pending.add(wheel.schedule("" + deadline, deadline));
+			} else if (op == 2 && !pending.isEmpty()){
+				TimingWheel.Timer<String> timer = pending.remove(rand.nextInt(pending.size()));
+				assertTrue(wheel.cancel(timer));
+			} else {
+				ArrayList<String> fired = wheel.tick();
+				int expected = 0;
+				for (int j = pending.size() - 1; j >= 0; j--){
+					if (pending.get(j).getDeadline() == wheel.getTime()){
+						assertFalse(pending.remove(j).isPending());
+						expected++;
+					}
+				}
+				assertEquals(expected, fired.size());
+				for (String task : fired){
+					assertEquals("" + wheel.getTime(), task);
+				}
+			}
+			assertEquals(pending.size(), wheel.size());
+		}
+	}
+	
+	@Test
+	public void testWorkStealingScheduler() throws InterruptedException{
+		try {
+			new WorkStealingScheduler(0);
+			fail("Did not throw IllegalArgumentException");
+		} catch (IllegalArgumentException e){
+			// Pass
+		}
+		
+		final WorkStealingScheduler single = new WorkStealingScheduler(1);
+		final CountDownLatch release = new CountDownLatch(1);
+		final ArrayList<Integer> order = new ArrayList<Integer>();
+		single.submit(0, new Runnable(){
+			public void run(){
+				try {
+					release.await();
+				} catch (InterruptedException e){
+					Thread.currentThread().interrupt();
+				}
+			}
+		});
+		int[] priorities = {5, 3, 9, 3, 1, 7};
+		for (int i = 0; i < priorities.length; i++){
+			final int id = priorities[i] * 10 + i;
+			single.submit(priorities[i], new Runnable(){
+				public void run(){
+					order.add(id);
+				}
+			});
+		}
+		release.countDown();
+		single.shutdown();
+		assertTrue(single.awaitTermination(10000));
+		assertEquals(Arrays.asList(14, 31, 33, 50, 75, 92), order);
+		try {
+			single.execute(new Runnable(){
+				public void run(){
+				}
+			});
+			fail("Did not throw IllegalStateException");
+		} catch (IllegalStateException e){
+			// Pass
+		}
+		
+		final WorkStealingScheduler scheduler = new WorkStealingScheduler(2);
+		final AtomicInteger children = new AtomicInteger(0);
+		final CountDownLatch stolen = new CountDownLatch(1);
+		scheduler.submit(0, new Runnable(){
+			public void run(){
+				for (int i = 0; i < 1000; i++){
+					scheduler.submit(i, new Runnable(){
+						public void run(){
+							children.incrementAndGet();
+							stolen.countDown();
+						}
+					});
+				}
+				try {
+					stolen.await(10, TimeUnit.SECONDS);
+				} catch (InterruptedException e){
+					Thread.currentThread().interrupt();
+				}
+			}
+		});
+		assertTrue(stolen.await(10, TimeUnit.SECONDS));
+		for (int i = 0; i < 1000; i++){
+			scheduler.execute(new Runnable(){
+				public void run(){
+					children.incrementAndGet();
+				}
+			});
+		}
+		scheduler.shutdown();
+		assertTrue(scheduler.awaitTermination(10000));
+		assertEquals(2000, children.get());
+		assertEquals(0, scheduler.getPendingCount());
+		assertTrue(scheduler.getStealCount() > 0);
+	}
+	
 	@Test
 	public void testLogBehavior(){
 		PriorityQueue<Integer> q = new PriorityQueue<Integer>();
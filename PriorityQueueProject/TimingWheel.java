@@ -0,0 +1,320 @@
+import java.util.ArrayList;
+
+/**
+ * A hierarchical timing wheel for timeouts, most of which are cancelled
+ * before they fire. Time moves forward in whole ticks. Level 0 of the wheel
+ * has one bucket per tick, and every level above it has buckets that span
+ * as many ticks as the whole level below. A timer is put in the lowest level
+ * whose range covers its deadline, in a doubly-linked bucket list, so both
+ * scheduling and cancelling it are O(1). When time reaches the start of a
+ * higher-level bucket, its timers cascade down into the levels below.
+ * 
+ * Deadlines past the range of the top level go to a PriorityQueue ordered by
+ * deadline instead, and move into the wheel once they come within range.
+ * Those are cancelled through their PriorityQueue handle in O(log n).
+ * 
+ * @author derrowap
+ * 
+ * @param <T>
+ *            - the type of task a timer carries
+ */
+public class TimingWheel<T> {
+	private final int wheelSize;
+	private long[] spans;
+	private Timer<T>[][] buckets;
+	private PriorityQueue<Timer<T>> overflow;
+	private long now;
+	private int size;
+
+	/**
+	 * Constructs a TimingWheel with 4 levels of 256 buckets, covering 2^32
+	 * ticks before deadlines overflow to the PriorityQueue.
+	 */
+	public TimingWheel() {
+		this(256, 4);
+	}
+
+	/**
+	 * Constructs a TimingWheel with the specified number of buckets per level
+	 * and number of levels, starting at time 0.
+	 * 
+	 * @param wheelSize
+	 *            - the number of buckets in every level, at least 2
+	 * @param levels
+	 *            - the number of levels, at least 1
+	 * 
+	 * @throws IllegalArgumentException
+	 *             - if wheelSize is less than 2, levels is less than 1, or the
+	 *             wheel would cover more than 2^62 ticks
+	 */
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	public TimingWheel(int wheelSize, int levels) {
+		if (wheelSize < 2 || levels < 1)
+			throw new IllegalArgumentException("Need 2 buckets and 1 level");
+		this.wheelSize = wheelSize;
+		this.spans = new long[levels + 1];
+		this.spans[0] = 1;
+		for (int i = 1; i <= levels; i++) {
+			if (this.spans[i - 1] > (1L << 62) / wheelSize)
+				throw new IllegalArgumentException("Wheel covers too many ticks");
+			this.spans[i] = this.spans[i - 1] * wheelSize;
+		}
+		this.buckets = new Timer[levels][wheelSize];
+		this.overflow = new PriorityQueue<Timer<T>>();
+		this.now = 0;
+		this.size = 0;
+	}
+
+	/**
+	 * Schedules the specified task to fire at the given tick. A deadline that
+	 * is not after the current time fires on the next tick.
+	 * 
+	 * @param task
+	 *            - the task to fire
+	 * @param deadline
+	 *            - the tick to fire at
+	 * 
+	 * @return the timer of the task, for cancelling it
+	 */
+	public Timer<T> schedule(T task, long deadline) {
+		Timer<T> timer = new Timer<>(task, Math.max(deadline, this.now + 1));
+		this.place(timer);
+		this.size++;
+		return timer;
+	}
+
+	/**
+	 * Cancels the specified timer so that its task never fires.
+	 * 
+	 * @param timer
+	 *            - the timer to cancel
+	 * 
+	 * @return true if the timer was pending, false if it had already fired,
+	 *         been cancelled, or belongs to another wheel
+	 */
+	public boolean cancel(Timer<T> timer) {
+		if (timer == null || timer.wheel != this)
+			return false;
+		if (timer.handle != null) {
+			this.overflow.remove(timer.handle);
+			timer.handle = null;
+		} else {
+			this.unlink(timer);
+		}
+		timer.wheel = null;
+		this.size--;
+		return true;
+	}
+
+	/**
+	 * Moves time forward by one tick and returns the tasks whose deadline is
+	 * the new time, in no particular order.
+	 * 
+	 * @return the tasks that fired
+	 */
+	public ArrayList<T> tick() {
+		ArrayList<T> fired = new ArrayList<>();
+		this.tick(fired);
+		return fired;
+	}
+
+	/**
+	 * Moves time forward tick by tick up to the specified time and returns
+	 * every task that fired on the way, in deadline order.
+	 * 
+	 * @param time
+	 *            - the time to move to
+	 * 
+	 * @return the tasks that fired
+	 */
+	public ArrayList<T> advanceTo(long time) {
+		ArrayList<T> fired = new ArrayList<>();
+		while (this.now < time)
+			this.tick(fired);
+		return fired;
+	}
+
+	/**
+	 * Returns the current time in ticks.
+	 * 
+	 * @return the current time
+	 */
+	public long getTime() {
+		return this.now;
+	}
+
+	/**
+	 * Returns the number of pending timers.
+	 * 
+	 * @return the number of pending timers
+	 */
+	public int size() {
+		return this.size;
+	}
+
+	/**
+	 * Returns TRUE if no timers are pending and FALSE otherwise.
+	 * 
+	 * @return boolean if no timers are pending
+	 */
+	public boolean isEmpty() {
+		return this.size == 0;
+	}
+
+	/**
+	 * Moves time forward by one tick. Higher-level buckets that start at the
+	 * new time cascade down, highest level first, overflow timers that are
+	 * now in range move into the wheel, and then the level 0 bucket of the
+	 * new time fires.
+	 * 
+	 * @param fired
+	 *            - the list to add fired tasks to
+	 */
+	private void tick(ArrayList<T> fired) {
+		this.now++;
+		for (int level = this.buckets.length - 1; level > 0; level--) {
+			if (this.now % this.spans[level] != 0)
+				continue;
+			int bucket = (int) (this.now / this.spans[level] % this.wheelSize);
+			Timer<T> timer = this.buckets[level][bucket];
+			this.buckets[level][bucket] = null;
+			while (timer != null) {
+				Timer<T> next = timer.next;
+				this.place(timer);
+				timer = next;
+			}
+		}
+		long range = this.spans[this.buckets.length];
+		while (!this.overflow.isEmpty()
+				&& this.overflow.peek().deadline - this.now < range) {
+			Timer<T> timer = this.overflow.poll();
+			timer.handle = null;
+			this.place(timer);
+		}
+		int bucket = (int) (this.now % this.wheelSize);
+		Timer<T> timer = this.buckets[0][bucket];
+		this.buckets[0][bucket] = null;
+		while (timer != null) {
+			Timer<T> next = timer.next;
+			timer.next = null;
+			timer.previous = null;
+			timer.wheel = null;
+			fired.add(timer.task);
+			this.size--;
+			timer = next;
+		}
+	}
+
+	/**
+	 * Puts the specified timer in the lowest level whose range covers its
+	 * deadline, or in the overflow queue if no level does.
+	 * 
+	 * @param timer
+	 *            - the timer to place
+	 */
+	private void place(Timer<T> timer) {
+		timer.wheel = this;
+		long delay = timer.deadline - this.now;
+		int level = 0;
+		while (level < this.buckets.length && delay >= this.spans[level + 1])
+			level++;
+		if (level == this.buckets.length) {
+			timer.handle = this.overflow.insert(timer);
+			return;
+		}
+		int bucket = (int) (timer.deadline / this.spans[level] % this.wheelSize);
+		timer.level = level;
+		timer.bucket = bucket;
+		timer.previous = null;
+		timer.next = this.buckets[level][bucket];
+		if (timer.next != null)
+			timer.next.previous = timer;
+		this.buckets[level][bucket] = timer;
+	}
+
+	/**
+	 * Removes the specified timer from its bucket list.
+	 * 
+	 * @param timer
+	 *            - the timer to remove
+	 */
+	private void unlink(Timer<T> timer) {
+		if (timer.previous != null)
+			timer.previous.next = timer.next;
+		else
+			this.buckets[timer.level][timer.bucket] = timer.next;
+		if (timer.next != null)
+			timer.next.previous = timer.previous;
+		timer.previous = null;
+		timer.next = null;
+	}
+
+	/**
+	 * A scheduled task. Timers compare by deadline so that the overflow queue
+	 * keeps the soonest one at its head.
+	 * 
+	 * @author derrowap
+	 * 
+	 * @param <T>
+	 *            - the type of task carried
+	 */
+	public static class Timer<T> implements Comparable<Timer<T>> {
+		private T task;
+		private long deadline;
+		private TimingWheel<T> wheel;
+		private int level;
+		private int bucket;
+		private Timer<T> previous;
+		private Timer<T> next;
+		private PriorityQueue.Handle<Timer<T>> handle;
+
+		/**
+		 * Constructs a Timer for the specified task and deadline.
+		 * 
+		 * @param task
+		 *            - the task to fire
+		 * @param deadline
+		 *            - the tick to fire at
+		 */
+		private Timer(T task, long deadline) {
+			this.task = task;
+			this.deadline = deadline;
+			this.wheel = null;
+			this.previous = null;
+			this.next = null;
+			this.handle = null;
+		}
+
+		/**
+		 * Returns the task of this Timer.
+		 * 
+		 * @return the task
+		 */
+		public T getTask() {
+			return this.task;
+		}
+
+		/**
+		 * Returns the tick this Timer fires at.
+		 * 
+		 * @return the deadline
+		 */
+		public long getDeadline() {
+			return this.deadline;
+		}
+
+		/**
+		 * Returns true if this Timer has neither fired nor been cancelled.
+		 * 
+		 * @return true if this Timer is pending
+		 */
+		public boolean isPending() {
+			return this.wheel != null;
+		}
+
+		@Override
+		public int compareTo(Timer<T> other) {
+			return Long.compare(this.deadline, other.deadline);
+		}
+	}
+}
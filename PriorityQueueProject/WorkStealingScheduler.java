@@ -0,0 +1,402 @@
+import java.util.Arrays;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * An executor that runs prioritized tasks on a fixed set of worker threads,
+ * each with its own PriorityQueue of tasks. A task submitted from a worker
+ * goes into that worker's own heap, and a task submitted from any other
+ * thread goes to the workers in turn. Every worker runs the best task of
+ * its own heap, so there is no single queue for all threads to fight over.
+ * 
+ * A worker whose heap runs empty steals the best half of the heap of
+ * another worker, so no worker sits idle while tasks are queued elsewhere.
+ * Priority order is kept within each heap but not across them: a worker
+ * may run a task while a better one waits in another worker's heap.
+ * Stealing the best half, rather than any half, keeps that inversion small.
+ * 
+ * Every heap has a lock of its own. Its owner is the only thread that takes
+ * it outside of submitting and stealing, so locking it is almost always
+ * uncontended.
+ * 
+ * Smaller priorities run first, and tasks with equal priorities run in the
+ * order they were submitted, as long as they are not stolen apart.
+ * 
+ * @author derrowap
+ */
+public class WorkStealingScheduler implements Executor {
+	private Worker[] workers;
+	private AtomicInteger nextWorker;
+	private AtomicLong nextSequence;
+	private AtomicInteger pending;
+	private AtomicInteger steals;
+	private ReentrantLock idleLock;
+	private Condition work;
+	private volatile int idle;
+	private volatile boolean shutdown;
+
+	/**
+	 * Constructs a WorkStealingScheduler with one worker per available
+	 * processor.
+	 */
+	public WorkStealingScheduler() {
+		this(Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * Constructs a WorkStealingScheduler with the specified number of worker
+	 * threads and starts them.
+	 * 
+	 * @param threads
+	 *            - the number of worker threads, at least 1
+	 * 
+	 * @throws IllegalArgumentException
+	 *             - if threads is less than 1
+	 */
+	public WorkStealingScheduler(int threads) {
+		if (threads < 1)
+			throw new IllegalArgumentException("Need at least 1 thread");
+		this.nextWorker = new AtomicInteger(0);
+		this.nextSequence = new AtomicLong(0);
+		this.pending = new AtomicInteger(0);
+		this.steals = new AtomicInteger(0);
+		this.idleLock = new ReentrantLock();
+		this.work = this.idleLock.newCondition();
+		this.idle = 0;
+		this.shutdown = false;
+		this.workers = new Worker[threads];
+		for (int i = 0; i < threads; i++)
+			this.workers[i] = new Worker(i);
+		for (Worker worker : this.workers)
+			worker.start();
+	}
+
+	/**
+	 * Submits the specified task to run with priority 0.
+	 * 
+	 * @param command
+	 *            - the task to run
+	 * 
+	 * @throws NullPointerException
+	 *             - if the task is null
+	 * @throws IllegalStateException
+	 *             - if this scheduler has been shut down
+	 */
+	public void execute(Runnable command) {
+		this.submit(0, command);
+	}
+
+	/**
+	 * Submits the specified task to run with the specified priority. Smaller
+	 * priorities run first.
+	 * 
+	 * @param priority
+	 *            - the priority of the task
+	 * @param command
+	 *            - the task to run
+	 * 
+	 * @throws NullPointerException
+	 *             - if the task is null
+	 * @throws IllegalStateException
+	 *             - if this scheduler has been shut down and the task is not
+	 *             submitted by one of its own tasks
+	 */
+	public void submit(int priority, Runnable command) {
+		if (command == null)
+			throw new NullPointerException();
+		Worker worker = this.currentWorker();
+		if (worker == null) {
+			if (this.shutdown)
+				throw new IllegalStateException("Scheduler is shut down");
+			int next = this.nextWorker.getAndIncrement();
+			worker = this.workers[Math.floorMod(next, this.workers.length)];
+		}
+		Task task = new Task(priority, this.nextSequence.getAndIncrement(),
+				command);
+		worker.lock.lock();
+		try {
+			worker.heap.add(task);
+		} finally {
+			worker.lock.unlock();
+		}
+		this.pending.incrementAndGet();
+		if (this.idle > 0)
+			this.signalIdle();
+	}
+
+	/**
+	 * Stops this scheduler from accepting tasks from outside. Tasks already
+	 * queued, and tasks they submit, still run, and then the workers stop.
+	 */
+	public void shutdown() {
+		this.shutdown = true;
+		this.signalIdle();
+	}
+
+	/**
+	 * Waits until every worker has stopped after a shutdown, or until the
+	 * specified time has passed.
+	 * 
+	 * @param millis
+	 *            - the longest time to wait, in milliseconds
+	 * 
+	 * @return true if every worker has stopped, false if the time ran out
+	 * 
+	 * @throws InterruptedException
+	 *             - if the calling thread is interrupted while waiting
+	 */
+	public boolean awaitTermination(long millis) throws InterruptedException {
+		long deadline = System.currentTimeMillis() + millis;
+		for (Worker worker : this.workers) {
+			long left = deadline - System.currentTimeMillis();
+			if (left > 0)
+				worker.join(left);
+			if (worker.isAlive())
+				return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Returns the number of worker threads.
+	 * 
+	 * @return the number of worker threads
+	 */
+	public int getThreadCount() {
+		return this.workers.length;
+	}
+
+	/**
+	 * Returns the number of tasks queued and not yet started.
+	 * 
+	 * @return the number of queued tasks
+	 */
+	public int getPendingCount() {
+		return this.pending.get();
+	}
+
+	/**
+	 * Returns the number of successful steals so far.
+	 * 
+	 * @return the number of steals
+	 */
+	public int getStealCount() {
+		return this.steals.get();
+	}
+
+	/**
+	 * Returns the worker the calling thread is, or null if it is not one of
+	 * the workers of this scheduler.
+	 * 
+	 * @return the worker of the calling thread, or null
+	 */
+	private Worker currentWorker() {
+		Thread thread = Thread.currentThread();
+		if (thread instanceof Worker && ((Worker) thread).scheduler() == this)
+			return (Worker) thread;
+		return null;
+	}
+
+	/**
+	 * Wakes every worker waiting for tasks.
+	 */
+	private void signalIdle() {
+		this.idleLock.lock();
+		try {
+			this.work.signalAll();
+		} finally {
+			this.idleLock.unlock();
+		}
+	}
+
+	/**
+	 * A task with its priority and submission order.
+	 * 
+	 * @author derrowap
+	 */
+	private static class Task implements Comparable<Task> {
+		private final int priority;
+		private final long sequence;
+		private final Runnable command;
+
+		/**
+		 * Constructs a Task.
+		 * 
+		 * @param priority
+		 *            - the priority of the task
+		 * @param sequence
+		 *            - the number of tasks submitted before it
+		 * @param command
+		 *            - the task to run
+		 */
+		private Task(int priority, long sequence, Runnable command) {
+			this.priority = priority;
+			this.sequence = sequence;
+			this.command = command;
+		}
+
+		@Override
+		public int compareTo(Task other) {
+			if (this.priority != other.priority)
+				return Integer.compare(this.priority, other.priority);
+			return Long.compare(this.sequence, other.sequence);
+		}
+	}
+
+	/**
+	 * A worker thread with its own heap of tasks.
+	 * 
+	 * @author derrowap
+	 */
+	private class Worker extends Thread {
+		private final PriorityQueue<Task> heap;
+		private final ReentrantLock lock;
+		private Task[] stolen;
+
+		/**
+		 * Constructs a Worker.
+		 * 
+		 * @param id
+		 *            - the index of the worker
+		 */
+		private Worker(int id) {
+			super("WorkStealingScheduler-" + id);
+			this.heap = new PriorityQueue<Task>();
+			this.lock = new ReentrantLock();
+			this.stolen = new Task[16];
+			this.setDaemon(true);
+		}
+
+		/**
+		 * Returns the scheduler this worker belongs to.
+		 * 
+		 * @return the scheduler
+		 */
+		private WorkStealingScheduler scheduler() {
+			return WorkStealingScheduler.this;
+		}
+
+		/**
+		 * Runs tasks from this worker's heap, stealing when it is empty and
+		 * waiting when there is nothing to steal, until the scheduler is shut
+		 * down and no tasks are left.
+		 */
+		@Override
+		public void run() {
+			while (true) {
+				Task task = this.pollLocal();
+				if (task == null)
+					task = this.steal();
+				if (task != null) {
+					WorkStealingScheduler.this.pending.decrementAndGet();
+					this.runTask(task);
+				} else {
+					Thread.yield();
+					if (!this.awaitWork())
+						return;
+				}
+			}
+		}
+
+		/**
+		 * Retrieves and removes the best task of this worker's heap.
+		 * 
+		 * @return the best task, or null if the heap is empty
+		 */
+		private Task pollLocal() {
+			this.lock.lock();
+			try {
+				return this.heap.poll();
+			} finally {
+				this.lock.unlock();
+			}
+		}
+
+		/**
+		 * Takes the best half of the heap of another worker, starting from a
+		 * random one. The best stolen task is returned and the rest go into
+		 * this worker's heap.
+		 * 
+		 * @return the best stolen task, or null if every other heap is empty
+		 */
+		private Task steal() {
+			Worker[] workers = WorkStealingScheduler.this.workers;
+			int n = workers.length;
+			int start = ThreadLocalRandom.current().nextInt(n);
+			for (int i = 0; i < n; i++) {
+				Worker victim = workers[(start + i) % n];
+				if (victim == this)
+					continue;
+				int count;
+				victim.lock.lock();
+				try {
+					int size = victim.heap.size();
+					if (size == 0)
+						continue;
+					count = (size + 1) / 2;
+					if (this.stolen.length < count)
+						this.stolen = new Task[Math.max(count,
+								this.stolen.length * 2)];
+					victim.heap.drainTo(this.stolen, count);
+				} finally {
+					victim.lock.unlock();
+				}
+				WorkStealingScheduler.this.steals.incrementAndGet();
+				this.lock.lock();
+				try {
+					for (int j = 1; j < count; j++)
+						this.heap.add(this.stolen[j]);
+				} finally {
+					this.lock.unlock();
+				}
+				Task best = this.stolen[0];
+				Arrays.fill(this.stolen, 0, count, null);
+				return best;
+			}
+			return null;
+		}
+
+		/**
+		 * Runs a task. An exception thrown by the task goes to this thread's
+		 * uncaught exception handler, and the worker keeps running.
+		 * 
+		 * @param task
+		 *            - the task to run
+		 */
+		private void runTask(Task task) {
+			try {
+				task.command.run();
+			} catch (RuntimeException ex) {
+				this.getUncaughtExceptionHandler().uncaughtException(this, ex);
+			}
+		}
+
+		/**
+		 * Waits until some task is queued. A task may be queued in a heap that
+		 * has just been checked, so this returns as soon as any task is
+		 * pending, even if this worker then finds nothing to steal.
+		 * 
+		 * @return false if the scheduler is shut down and no tasks are left,
+		 *         true otherwise
+		 */
+		private boolean awaitWork() {
+			WorkStealingScheduler.this.idleLock.lock();
+			try {
+				WorkStealingScheduler.this.idle++;
+				while (WorkStealingScheduler.this.pending.get() == 0) {
+					if (WorkStealingScheduler.this.shutdown)
+						return false;
+					WorkStealingScheduler.this.work.awaitUninterruptibly();
+				}
+				return true;
+			} finally {
+				WorkStealingScheduler.this.idle--;
+				WorkStealingScheduler.this.idleLock.unlock();
+			}
+		}
+	}
+}
@@ -1,8 +1,12 @@
 import java.awt.Color;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.ConcurrentModificationException;
 import java.util.Iterator;
 import java.util.NoSuchElementException;
+import java.util.Spliterator;
 import java.util.Stack;
+import java.util.function.Consumer;
 
 /**
  * A RedBlackTree object.
@@ -95,16 +99,99 @@ public class RedBlackTree<T extends Comparable<? super T>> implements
 			this.size++;
 			return true;
 		}
-		int beforeSize = this.size;
+		int beforeSize = sizeOf(this.root);
 		this.root = this.root.getInsert(o);
 		this.root.setBlack();
-		if (beforeSize != this.size) {
+		this.updateSizes(this.root, o);
+		if (sizeOf(this.root) != beforeSize) {
+			this.size = sizeOf(this.root);
 			this.modifications++;
 			return true;
 		}
 		return false;
 	}
 
+	/**
+	 * Replaces the contents of the RedBlackTree with the given elements, which
+	 * must be in strictly increasing order. Builds a perfectly balanced tree
+	 * in O(n), without rotations or comparisons.
+	 * 
+	 * @param elements
+	 *            - the elements in strictly increasing order
+	 * 
+	 * @throws IllegalArgumentException
+	 *             - if any element is null
+	 */
+	protected void buildFromSorted(T[] elements) {
+		this.buildFromSorted(Arrays.asList(elements).iterator(),
+				elements.length);
+	}
+
+	/**
+	 * Replaces the contents of the RedBlackTree with the first size elements
+	 * of the given iterator, which must come in strictly increasing order.
+	 * Builds a perfectly balanced tree in O(n), without rotations or
+	 * comparisons. Every level of the tree is full except maybe the deepest,
+	 * so all nodes are black except those on the deepest level when it is
+	 * not full, which are red. Every path then has the same number of black
+	 * nodes and no red node has a red child.
+	 * 
+	 * @param elements
+	 *            - iterator over the elements in strictly increasing order
+	 * @param size
+	 *            - the number of elements to take from the iterator
+	 * 
+	 * @throws IllegalArgumentException
+	 *             - if size is negative or any element is null
+	 * @throws NoSuchElementException
+	 *             - if the iterator has fewer than size elements
+	 */
+	protected void buildFromSorted(Iterator<? extends T> elements, int size) {
+		if (size < 0)
+			throw new IllegalArgumentException("Negative size");
+		int redDepth = -1;
+		if ((size & (size + 1)) != 0) // deepest level is not full
+			redDepth = 31 - Integer.numberOfLeadingZeros(size);
+		this.root = this.build(elements, size, 0, redDepth);
+		this.size = size;
+		this.modifications++;
+	}
+
+	/**
+	 * Builds a perfectly balanced subtree out of the next size elements of
+	 * the iterator: the left half first, then the middle element, then the
+	 * right half, so the elements are taken in order.
+	 * 
+	 * @param elements
+	 *            - iterator over the elements in increasing order
+	 * @param size
+	 *            - the number of elements in the subtree
+	 * @param depth
+	 *            - the depth of the root of the subtree
+	 * @param redDepth
+	 *            - the depth whose nodes are red, or -1 if none are
+	 * 
+	 * @return root of the subtree, or null if size is 0
+	 */
+	private BinaryNode build(Iterator<? extends T> elements, int size,
+			int depth, int redDepth) {
+		if (size == 0)
+			return null;
+		int leftSize = (size - 1) / 2;
+		BinaryNode left = this.build(elements, leftSize, depth + 1, redDepth);
+		T e = elements.next();
+		if (e == null)
+			throw new IllegalArgumentException("Can't insert null");
+		BinaryNode node = new BinaryNode(e);
+		if (depth != redDepth)
+			node.setBlack();
+		node.leftChild = left;
+		node.rightChild = this.build(elements, size - 1 - leftSize,
+				depth + 1, redDepth);
+		node.updateSize();
+		return node;
+	}
+
 	/**
 	 * Removes the given element from this RedBlackTree. This represents Step 1
 	 * and Step 4 of the algorithm.
@@ -123,7 +210,7 @@ public class RedBlackTree<T extends Comparable<? super T>> implements
 		if (this.root.hasTwoBlackChildren()) {
 			this.root.setRed();
 		}
-		int beforeSize = this.size;
+		int beforeSize = sizeOf(this.root);
 		if (!this.root.hasTwoBlackChildren()
 				|| (this.root.leftChild == null && this.root.rightChild == null)
 				|| (this.root.element.equals(element))) {
@@ -138,13 +225,599 @@ public class RedBlackTree<T extends Comparable<? super T>> implements
 		}
 		if (this.root != null)
 			this.root.setBlack();
-		if (beforeSize != this.size) {
+		// the node unlinked was where element was, or where the element that
+		// replaced it was, just below it
+		this.updateSizes(this.root, element);
+		T replacement = this.lower(element);
+		if (replacement != null)
+			this.updateSizes(this.root, replacement);
+		if (sizeOf(this.root) != beforeSize) {
+			this.size = sizeOf(this.root);
 			this.modifications++;
 			return true;
 		}
 		return false;
 	}
 
+	/**
+	 * Returns the greatest element of this tree that is less than or equal to
+	 * e, which is e itself if the tree holds it, or null if every element is
+	 * greater.
+	 * 
+	 * @param e
+	 *            - the value to match
+	 * 
+	 * @return the greatest element less than or equal to e, or null
+	 * 
+	 * @throws IllegalArgumentException
+	 *             - if e is null
+	 */
+	public T floor(T e) {
+		return this.nearest(e, true, true);
+	}
+
+	/**
+	 * Returns the least element of this tree that is greater than or equal to
+	 * e, which is e itself if the tree holds it, or null if every element is
+	 * smaller.
+	 * 
+	 * @param e
+	 *            - the value to match
+	 * 
+	 * @return the least element greater than or equal to e, or null
+	 * 
+	 * @throws IllegalArgumentException
+	 *             - if e is null
+	 */
+	public T ceiling(T e) {
+		return this.nearest(e, false, true);
+	}
+
+	/**
+	 * Returns the greatest element of this tree that is strictly less than e,
+	 * or null if no element is smaller.
+	 * 
+	 * @param e
+	 *            - the value to match
+	 * 
+	 * @return the greatest element less than e, or null
+	 * 
+	 * @throws IllegalArgumentException
+	 *             - if e is null
+	 */
+	public T lower(T e) {
+		return this.nearest(e, true, false);
+	}
+
+	/**
+	 * Returns the least element of this tree that is strictly greater than e,
+	 * or null if no element is larger.
+	 * 
+	 * @param e
+	 *            - the value to match
+	 * 
+	 * @return the least element greater than e, or null
+	 * 
+	 * @throws IllegalArgumentException
+	 *             - if e is null
+	 */
+	public T higher(T e) {
+		return this.nearest(e, false, false);
+	}
+
+	/**
+	 * Walks from the root towards e, remembering the last node that lies on
+	 * the requested side of it. Colors play no part in the search, and no
+	 * root-to-leaf path of a red-black tree is more than twice as long as
+	 * another, so the walk visits O(log n) nodes.
+	 * 
+	 * @param e
+	 *            - the value to match
+	 * @param below
+	 *            - true to look below e, false to look above it
+	 * @param inclusive
+	 *            - true if e itself is an answer
+	 * 
+	 * @return the closest element, or null if there is none
+	 */
+	private T nearest(T e, boolean below, boolean inclusive) {
+		if (e == null)
+			throw new IllegalArgumentException("Can't search for null");
+		T best = null;
+		BinaryNode node = this.root;
+		while (node != null) {
+			int compared = e.compareTo(node.element);
+			if (compared == 0 && inclusive)
+				return node.element;
+			if (below ? compared > 0 : compared < 0) {
+				best = node.element;
+				node = below ? node.rightChild : node.leftChild;
+			} else {
+				node = below ? node.leftChild : node.rightChild;
+			}
+		}
+		return best;
+	}
+
+	/**
+	 * Returns a view of the elements of the RedBlackTree from from to to, in
+	 * order. Each bound is left out unless its inclusive flag is set. The view
+	 * reads the tree every time it is used, so it sees later inserts and
+	 * removes.
+	 * 
+	 * @param from
+	 *            - the lower bound
+	 * @param fromInclusive
+	 *            - true if from itself is in the view
+	 * @param to
+	 *            - the upper bound
+	 * @param toInclusive
+	 *            - true if to itself is in the view
+	 * 
+	 * @return a view of the elements between from and to
+	 * 
+	 * @throws IllegalArgumentException
+	 *             - if a bound is null or from is greater than to
+	 */
+	public SubSet subSet(T from, boolean fromInclusive, T to,
+			boolean toInclusive) {
+		if (from == null || to == null)
+			throw new IllegalArgumentException("Bounds can't be null");
+		if (from.compareTo(to) > 0)
+			throw new IllegalArgumentException("from is greater than to");
+		return new SubSet(from, fromInclusive, to, toInclusive);
+	}
+
+	/**
+	 * Returns a view of the elements greater than or equal to from and less
+	 * than to.
+	 * 
+	 * @param from
+	 *            - the lower bound, included
+	 * @param to
+	 *            - the upper bound, left out
+	 * 
+	 * @return a view of the elements in [from, to)
+	 * 
+	 * @throws IllegalArgumentException
+	 *             - if a bound is null or from is greater than to
+	 */
+	public SubSet subSet(T from, T to) {
+		return this.subSet(from, true, to, false);
+	}
+
+	/**
+	 * Returns a view of the elements less than to.
+	 * 
+	 * @param to
+	 *            - the upper bound, left out
+	 * 
+	 * @return a view of the elements below to
+	 * 
+	 * @throws IllegalArgumentException
+	 *             - if to is null
+	 */
+	public SubSet headSet(T to) {
+		if (to == null)
+			throw new IllegalArgumentException("Bounds can't be null");
+		return new SubSet(null, false, to, false);
+	}
+
+	/**
+	 * Returns a view of the elements greater than or equal to from.
+	 * 
+	 * @param from
+	 *            - the lower bound, included
+	 * 
+	 * @return a view of the elements from from on
+	 * 
+	 * @throws IllegalArgumentException
+	 *             - if from is null
+	 */
+	public SubSet tailSet(T from) {
+		if (from == null)
+			throw new IllegalArgumentException("Bounds can't be null");
+		return new SubSet(from, true, null, false);
+	}
+
+	/**
+	 * Returns the element with the specified index in sorted order, so
+	 * select(0) is the smallest element. Every node knows the size of its
+	 * subtree, so this is one walk down the tree in O(log n).
+	 * 
+	 * @param k
+	 *            - the index of the element, from 0 to size() - 1
+	 * 
+	 * @return the element with index k
+	 * 
+	 * @throws IndexOutOfBoundsException
+	 *             - if k is negative or not less than size()
+	 */
+	public T select(int k) {
+		if (k < 0 || k >= this.size)
+			throw new IndexOutOfBoundsException("Index: " + k + ", Size: "
+					+ this.size);
+		BinaryNode node = this.root;
+		while (true) {
+			int leftSize = sizeOf(node.leftChild);
+			if (k < leftSize) {
+				node = node.leftChild;
+			} else if (k > leftSize) {
+				k -= leftSize + 1;
+				node = node.rightChild;
+			} else {
+				return node.element;
+			}
+		}
+	}
+
+	/**
+	 * Returns the number of elements in the RedBlackTree that are smaller
+	 * than the specified element, in O(log n). This is the index the element
+	 * has, or would have if it were inserted.
+	 * 
+	 * @param o
+	 *            - the element to rank
+	 * 
+	 * @return the number of smaller elements
+	 * 
+	 * @throws IllegalArgumentException
+	 *             - if the element is null
+	 */
+	public int rank(T o) {
+		if (o == null)
+			throw new IllegalArgumentException("Can't rank null");
+		return this.countBelow(o, false);
+	}
+
+	/**
+	 * Returns the number of elements smaller than the specified element, or
+	 * smaller than or equal to it, in O(log n).
+	 * 
+	 * @param o
+	 *            - the element to compare to
+	 * @param inclusive
+	 *            - true to also count the element itself
+	 * 
+	 * @return the number of elements counted
+	 */
+	private int countBelow(T o, boolean inclusive) {
+		int count = 0;
+		BinaryNode node = this.root;
+		while (node != null) {
+			int compared = o.compareTo(node.element);
+			if (compared < 0) {
+				node = node.leftChild;
+			} else {
+				if (compared == 0)
+					return count + sizeOf(node.leftChild) + (inclusive ? 1 : 0);
+				count += sizeOf(node.leftChild) + 1;
+				node = node.rightChild;
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Recomputes the subtree sizes on the path from the specified node down
+	 * to the specified element and on through the largest nodes below it,
+	 * bottom-up. Rotations keep the sizes of the nodes they move right, so
+	 * after an insert or a removal only the ancestors of the node added or
+	 * unlinked are off by one. An added node is on the path to its element.
+	 * An unlinked node was on the path to the removed element, or was the
+	 * largest node below the one that took the place of the removed element.
+	 * 
+	 * @param node
+	 *            - the root of the subtree to walk
+	 * @param o
+	 *            - the element to walk to
+	 */
+	private void updateSizes(BinaryNode node, T o) {
+		if (node == null)
+			return;
+		if (o.compareTo(node.element) <= 0)
+			this.updateSizes(node.leftChild, o);
+		else
+			this.updateSizes(node.rightChild, o);
+		node.updateSize();
+	}
+
+	/**
+	 * Returns the number of elements in the subtree of the specified node.
+	 * 
+	 * @param node
+	 *            - the root of the subtree, or null
+	 * 
+	 * @return size of the subtree, or 0 if node is null
+	 */
+	private int sizeOf(BinaryNode node) {
+		return node == null ? 0 : node.subtreeSize;
+	}
+
+	/**
+	 * Returns TRUE if the specified node is red, where null counts as black.
+	 * 
+	 * @param node
+	 *            - the node to check, or null
+	 * 
+	 * @return true if node is red
+	 */
+	private boolean isRed(BinaryNode node) {
+		return node != null && node.color == Color.RED;
+	}
+
+	/**
+	 * Returns the number of black nodes on any path from the specified node
+	 * down to a null child, counting the node itself.
+	 * 
+	 * @param node
+	 *            - the root of the subtree, or null
+	 * 
+	 * @return black height of the subtree, or 0 if node is null
+	 */
+	private int blackHeight(BinaryNode node) {
+		int height = 0;
+		for (; node != null; node = node.leftChild)
+			if (node.color == Color.BLACK)
+				height++;
+		return height;
+	}
+
+	/**
+	 * Moves every element greater than or equal to the specified key out of
+	 * this RedBlackTree and into a new one, in O(log n). Every node on the
+	 * path to the key is joined back onto the pieces cut off on its side, and
+	 * those pieces shrink in black height towards the bottom, so the joins
+	 * add up to O(log n). The black heights of the pieces are carried down
+	 * the path instead of being counted again for every join.
+	 * 
+	 * Nodes keep counting their rotations on the tree they were inserted
+	 * into, so rotations in a tree that took nodes from another one are not
+	 * all counted by getRotationCount().
+	 * 
+	 * @param key
+	 *            - the smallest element to move out
+	 * 
+	 * @return a new RedBlackTree holding the elements greater than or equal
+	 *         to key
+	 * 
+	 * @throws IllegalArgumentException
+	 *             - if key is null
+	 */
+	public RedBlackTree<T> split(T key) {
+		if (key == null)
+			throw new IllegalArgumentException("Can't split at null");
+		BinaryNode[] parts = this.split(this.root, this.blackHeight(this.root),
+				key, new int[2]);
+		RedBlackTree<T> above = new RedBlackTree<T>();
+		above.root = parts[1];
+		above.size = sizeOf(parts[1]);
+		if (above.root != null)
+			above.root.setBlack();
+		this.root = parts[0];
+		this.size = sizeOf(parts[0]);
+		if (this.root != null)
+			this.root.setBlack();
+		this.modifications++;
+		return above;
+	}
+
+	/**
+	 * Splits the subtree of the specified node into the elements less than
+	 * key and the elements greater than or equal to it. Either part may have
+	 * a red root.
+	 * 
+	 * @param node
+	 *            - the root of the subtree, or null
+	 * @param height
+	 *            - the black height of node
+	 * @param key
+	 *            - the smallest element of the upper part
+	 * @param heights
+	 *            - receives the black heights of the lower and the upper part
+	 * 
+	 * @return the roots of the lower and the upper part
+	 */
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	private BinaryNode[] split(BinaryNode node, int height, T key,
+			int[] heights) {
+		if (node == null) {
+			heights[0] = heights[1] = 0;
+			return (BinaryNode[]) new RedBlackTree.BinaryNode[2];
+		}
+		int childHeight = isRed(node) ? height : height - 1;
+		BinaryNode[] parts;
+		if (key.compareTo(node.element) <= 0) {
+			parts = this.split(node.leftChild, childHeight, key, heights);
+			parts[1] = this.join(parts[1], heights[1], node, node.rightChild,
+					childHeight);
+			heights[1] = this.blackenRoot(parts[1],
+					Math.max(heights[1], childHeight));
+		} else {
+			parts = this.split(node.rightChild, childHeight, key, heights);
+			parts[0] = this.join(node.leftChild, childHeight, node, parts[0],
+					heights[0]);
+			heights[0] = this.blackenRoot(parts[0],
+					Math.max(childHeight, heights[0]));
+		}
+		return parts;
+	}
+
+	/**
+	 * Colors the specified root black if it is red with a red child, which
+	 * adds one to its black height.
+	 * 
+	 * @param root
+	 *            - the root of a joined subtree, or null
+	 * @param height
+	 *            - the black height of root
+	 * 
+	 * @return the black height of root afterwards
+	 */
+	private int blackenRoot(BinaryNode root, int height) {
+		if (isRed(root) && (isRed(root.leftChild) || isRed(root.rightChild))) {
+			root.setBlack();
+			return height + 1;
+		}
+		return height;
+	}
+
+	/**
+	 * Joins two RedBlackTrees and an element between them into a new
+	 * RedBlackTree, in O(log n). The pivot goes in as a red node at the depth
+	 * of the tree with more black nodes where the black heights match, and a
+	 * red parent above it is fixed with one rotation on the way back up. Both
+	 * trees are left empty.
+	 * 
+	 * Nodes keep counting their rotations on the tree they were inserted
+	 * into, so rotations in the joined tree are not all counted by its
+	 * getRotationCount().
+	 * 
+	 * @param left
+	 *            - the tree of elements less than pivot
+	 * @param pivot
+	 *            - the element between the two trees
+	 * @param right
+	 *            - the tree of elements greater than pivot
+	 * 
+	 * @return a new RedBlackTree holding the elements of both trees and pivot
+	 * 
+	 * @throws IllegalArgumentException
+	 *             - if pivot is null, or left has an element not less than
+	 *             pivot, or right has an element not greater than it
+	 */
+	public static <T extends Comparable<? super T>> RedBlackTree<T> join(
+			RedBlackTree<T> left, T pivot, RedBlackTree<T> right) {
+		if (pivot == null)
+			throw new IllegalArgumentException("Can't insert null");
+		if (left.ceiling(pivot) != null || right.floor(pivot) != null)
+			throw new IllegalArgumentException("Trees overlap the pivot");
+		RedBlackTree<T> output = new RedBlackTree<T>();
+		output.root = output.join(left.root, output.blackHeight(left.root),
+				output.new BinaryNode(pivot), right.root,
+				output.blackHeight(right.root));
+		output.root.setBlack();
+		output.size = output.sizeOf(output.root);
+		left.root = right.root = null;
+		left.size = right.size = 0;
+		left.modifications++;
+		right.modifications++;
+		return output;
+	}
+
+	/**
+	 * Joins two subtrees with the specified node between them, in time
+	 * proportional to the difference of their black heights. If one subtree
+	 * has more black nodes, the pivot goes down its inner side to the first
+	 * black node with the black height of the other subtree. The result has
+	 * the larger of the two black heights, and below its root never a red
+	 * node with a red child. The root itself may be red with a red child, for
+	 * the caller to color black.
+	 * 
+	 * @param left
+	 *            - the root of the subtree of smaller elements, or null
+	 * @param leftHeight
+	 *            - the black height of left
+	 * @param pivot
+	 *            - the node between the two subtrees
+	 * @param right
+	 *            - the root of the subtree of greater elements, or null
+	 * @param rightHeight
+	 *            - the black height of right
+	 * 
+	 * @return root of the joined subtree
+	 */
+	private BinaryNode join(BinaryNode left, int leftHeight, BinaryNode pivot,
+			BinaryNode right, int rightHeight) {
+		if (leftHeight > rightHeight)
+			return this.joinRight(left, leftHeight, pivot, right, rightHeight);
+		if (rightHeight > leftHeight)
+			return this.joinLeft(left, leftHeight, pivot, right, rightHeight);
+		pivot.leftChild = left;
+		pivot.rightChild = right;
+		pivot.setRed();
+		pivot.updateSize();
+		return pivot;
+	}
+
+	/**
+	 * Hangs the pivot and the right subtree down the right side of the left
+	 * subtree, which has more black nodes. A red pivot under a red parent is
+	 * fixed one level up, at the black grandparent, by a left rotation.
+	 * 
+	 * @param left
+	 *            - the root of the subtree of smaller elements
+	 * @param leftHeight
+	 *            - the black height of left
+	 * @param pivot
+	 *            - the node between the two subtrees
+	 * @param right
+	 *            - the root of the subtree of greater elements, or null
+	 * @param rightHeight
+	 *            - the black height of right
+	 * 
+	 * @return root of the joined subtree
+	 */
+	private BinaryNode joinRight(BinaryNode left, int leftHeight,
+			BinaryNode pivot, BinaryNode right, int rightHeight) {
+		if (!isRed(left) && leftHeight == rightHeight) {
+			pivot.leftChild = left;
+			pivot.rightChild = right;
+			pivot.setRed();
+			pivot.updateSize();
+			return pivot;
+		}
+		int childHeight = isRed(left) ? leftHeight : leftHeight - 1;
+		left.rightChild = this.joinRight(left.rightChild, childHeight, pivot,
+				right, rightHeight);
+		left.updateSize();
+		if (!isRed(left) && isRed(left.rightChild)
+				&& isRed(left.rightChild.rightChild)) {
+			left.rightChild.rightChild.setBlack();
+			return left.leftRotation();
+		}
+		return left;
+	}
+
+	/**
+	 * Hangs the pivot and the left subtree down the left side of the right
+	 * subtree, which has more black nodes. A red pivot under a red parent is
+	 * fixed one level up, at the black grandparent, by a right rotation.
+	 * 
+	 * @param left
+	 *            - the root of the subtree of smaller elements, or null
+	 * @param leftHeight
+	 *            - the black height of left
+	 * @param pivot
+	 *            - the node between the two subtrees
+	 * @param right
+	 *            - the root of the subtree of greater elements
+	 * @param rightHeight
+	 *            - the black height of right
+	 * 
+	 * @return root of the joined subtree
+	 */
+	private BinaryNode joinLeft(BinaryNode left, int leftHeight,
+			BinaryNode pivot, BinaryNode right, int rightHeight) {
+		if (!isRed(right) && leftHeight == rightHeight) {
+			pivot.leftChild = left;
+			pivot.rightChild = right;
+			pivot.setRed();
+			pivot.updateSize();
+			return pivot;
+		}
+		int childHeight = isRed(right) ? rightHeight : rightHeight - 1;
+		right.leftChild = this.joinLeft(left, leftHeight, pivot,
+				right.leftChild, childHeight);
+		right.updateSize();
+		if (!isRed(right) && isRed(right.leftChild)
+				&& isRed(right.leftChild.leftChild)) {
+			right.leftChild.leftChild.setBlack();
+			return right.rightRotation();
+		}
+		return right;
+	}
+
 	/**
 	 * Returns a lazy pre-order iterator object that iterates over objects of
 	 * type RedBlackTree.BinaryNode
@@ -155,6 +828,18 @@ public class RedBlackTree<T extends Comparable<? super T>> implements
 		return new LazyPreOrderIterator();
 	}
 
+	/**
+	 * Returns a spliterator over the RedBlackTree in sorted order, unlike
+	 * iterator(), for parallel streams. It splits at subtree boundaries and
+	 * knows the exact size of every part from the subtree sizes.
+	 * 
+	 * @return a sized, sorted spliterator of the RedBlackTree
+	 */
+	@SuppressWarnings("rawtypes")
+	public Spliterator<RedBlackTree.BinaryNode> spliterator() {
+		return new LazySpliterator();
+	}
+
 	/**
 	 * A BinaryNode object.
 	 * 
@@ -166,10 +851,11 @@ public class RedBlackTree<T extends Comparable<? super T>> implements
 		private BinaryNode leftChild;
 		private BinaryNode rightChild;
 		private Color color;
+		private int subtreeSize;
 
 		/**
-		 * Constructs a BinaryNode initializing children
-		 * to NULL and height to be 0.
+		 * Constructs a RED BinaryNode initializing children
+		 * to NULL and subtree size to be 1.
 		 * 
 		 * @param e
 		 *            - the element of this BinaryNode
@@ -179,6 +865,7 @@ public class RedBlackTree<T extends Comparable<? super T>> implements
 			this.leftChild = null;
 			this.rightChild = null;
 			this.color = Color.RED;
+			this.subtreeSize = 1;
 		}
 
 		/**
@@ -225,6 +912,15 @@ public class RedBlackTree<T extends Comparable<? super T>> implements
 			return rightHeight;
 		}
 
+		/**
+		 * Returns the number of elements in the subtree of this BinaryNode.
+		 * 
+		 * @return subtree size
+		 */
+		protected int getSubtreeSize() {
+			return this.subtreeSize;
+		}
+
 		/**
 		 * Returns the color of this BinaryNode
 		 * 
@@ -250,7 +946,6 @@ public class RedBlackTree<T extends Comparable<? super T>> implements
 			while (true) {
 				if (current == null) { // insert new node
 					current = new BinaryNode(o);
-					RedBlackTree.this.size++;
 					if (current.element.compareTo(parent.element) > 0)
 						parent.rightChild = current;
 					else
@@ -291,14 +986,22 @@ public class RedBlackTree<T extends Comparable<? super T>> implements
 								grandParent = temp;
 								localRoot = grandParent;
 							}
-							if (grandParent.rightChild.element == parent.element) {
-								/* rightLeftRotation occured */
-								parent = grandParent.rightChild;
-								current = parent.leftChild;
-							} else { /* leftRightRotation occured */
-								parent = grandParent.leftChild;
-								current = parent.rightChild;
-							}
+							/*
+							 * current is now the black top of the subtree with
+							 * two red children, so move past it and its child
+							 * on the side of o
+							 */
+							int compared = o.compareTo(grandParent.element);
+							if (compared == 0)
+								return localRoot; // element already in tree
+							parent = compared < 0 ? grandParent.leftChild
+									: grandParent.rightChild;
+							compared = o.compareTo(parent.element);
+							if (compared == 0)
+								return localRoot; // element already in tree
+							current = compared < 0 ? parent.leftChild
+									: parent.rightChild;
+							continue;
 						} else { /* single rotation occured */
 							parent = temp;
 							if (parent.leftChild.element == current.element) // rightRotation
@@ -306,9 +1009,10 @@ public class RedBlackTree<T extends Comparable<? super T>> implements
 							else
 								// leftRotation
 								current = parent.rightChild;
-							if (greatGrandParent == null)
+							if (greatGrandParent == null) {
 								localRoot = parent;
-							else if (greatGrandParent.leftChild.element == grandParent.element) {
+								grandParent = null;
+							} else if (greatGrandParent.leftChild.element == grandParent.element) {
 								grandParent = greatGrandParent;
 								grandParent.leftChild = parent;
 							} else if (greatGrandParent.rightChild.element == grandParent.element) {
@@ -745,8 +1449,6 @@ public class RedBlackTree<T extends Comparable<? super T>> implements
 		 * @return parent of this subtree
 		 */
 		private BinaryNode removeStep3(T element, BinaryNode parent) {
-			RedBlackTree.this.size--;
-
 			/* X is a leaf node */
 			if (this.rightChild == null && this.leftChild == null) {
 				if (parent == null)
@@ -764,7 +1466,6 @@ public class RedBlackTree<T extends Comparable<? super T>> implements
 			if (this.leftChild != null && this.rightChild != null) {
 				BinaryNode max = this.leftChild.findMaxNode();
 				if (this.color == Color.RED) {
-					RedBlackTree.this.size++;
 					if (parent == null) {
 						System.out.println("this: " + this.element + " max: " + max.element);
 						this.element = max.element;
@@ -784,14 +1485,8 @@ public class RedBlackTree<T extends Comparable<? super T>> implements
 					}
 				} else {
 					parent = this.removeStep2B(max.element, parent);
-					if (parent.element.equals(this.element))
-						parent.element = max.element;
-					else if (parent.leftChild != null
-							&& parent.leftChild.element.equals(this.element))
-						parent.leftChild.element = max.element;
-					else if (parent.rightChild != null
-							&& parent.rightChild.element.equals(this.element))
-						parent.rightChild.element = max.element;
+					// rotations may have moved this node anywhere below parent
+					this.element = max.element;
 				}
 				return parent;
 			}
@@ -910,6 +1605,8 @@ public class RedBlackTree<T extends Comparable<? super T>> implements
 			if (temp != null)
 				output.leftChild.rightChild = temp;
 			RedBlackTree.this.rotations++;
+			this.updateSize();
+			output.updateSize();
 			return output;
 		}
 
@@ -928,6 +1625,8 @@ public class RedBlackTree<T extends Comparable<? super T>> implements
 			if (temp != null)
 				output.rightChild.leftChild = temp;
 			RedBlackTree.this.rotations++;
+			this.updateSize();
+			output.updateSize();
 			return output;
 		}
 
@@ -965,6 +1664,15 @@ public class RedBlackTree<T extends Comparable<? super T>> implements
 			return output;
 		}
 
+		/**
+		 * Sets the subtree size of this BinaryNode from the sizes of its
+		 * children.
+		 */
+		private void updateSize() {
+			this.subtreeSize = 1 + sizeOf(this.leftChild)
+					+ sizeOf(this.rightChild);
+		}
+
 		/**
 		 * Sets this BinaryNode's color to BLACK.
 		 */
@@ -990,6 +1698,76 @@ public class RedBlackTree<T extends Comparable<? super T>> implements
 		}
 	}
 
+	/**
+	 * A view of the elements of the RedBlackTree between two bounds, where a
+	 * null bound is open. Its iterator starts at the lower bound, so iterating
+	 * over k elements takes O(log n + k), and its size comes from the subtree
+	 * sizes in O(log n).
+	 * 
+	 * @author derrowap
+	 * 
+	 */
+	@SuppressWarnings("rawtypes")
+	public class SubSet implements Iterable<RedBlackTree.BinaryNode> {
+		private T from;
+		private boolean fromInclusive;
+		private T to;
+		private boolean toInclusive;
+
+		/**
+		 * Constructs a SubSet with the specified bounds.
+		 * 
+		 * @param from
+		 *            - the lower bound, or null
+		 * @param fromInclusive
+		 *            - true if from itself is in the view
+		 * @param to
+		 *            - the upper bound, or null
+		 * @param toInclusive
+		 *            - true if to itself is in the view
+		 */
+		private SubSet(T from, boolean fromInclusive, T to,
+				boolean toInclusive) {
+			this.from = from;
+			this.fromInclusive = fromInclusive;
+			this.to = to;
+			this.toInclusive = toInclusive;
+		}
+
+		/**
+		 * Returns a lazy in-order iterator over the elements in the view.
+		 * 
+		 * @return a lazy in-order iterator of the view
+		 */
+		public Iterator<RedBlackTree.BinaryNode> iterator() {
+			return new LazyInOrderIterator(this.from, this.fromInclusive,
+					this.to, this.toInclusive);
+		}
+
+		/**
+		 * Returns TRUE if there are no elements in the view and FALSE
+		 * otherwise.
+		 * 
+		 * @return boolean if the view is empty
+		 */
+		public boolean isEmpty() {
+			return this.size() == 0;
+		}
+
+		/**
+		 * Returns the number of elements in the view, in O(log n).
+		 * 
+		 * @return number of elements in the view
+		 */
+		public int size() {
+			int above = this.to == null ? RedBlackTree.this.size : RedBlackTree.this
+					.countBelow(this.to, this.toInclusive);
+			int below = this.from == null ? 0 : RedBlackTree.this.countBelow(
+					this.from, !this.fromInclusive);
+			return Math.max(above - below, 0);
+		}
+	}
+
 	/**
 	 * A lazy in-order iterator object.
 	 * 
@@ -1001,6 +1779,8 @@ public class RedBlackTree<T extends Comparable<? super T>> implements
 		Stack<BinaryNode> stack = new Stack<>();
 		BinaryNode lastNode;
 		int modifications;
+		T to;
+		boolean toInclusive;
 
 		/**
 		 * Constructs a lazy in-order iterator object.
@@ -1021,6 +1801,41 @@ public class RedBlackTree<T extends Comparable<? super T>> implements
 			}
 		}
 
+		/**
+		 * Constructs a lazy in-order iterator object that starts at from and
+		 * stops after to, where a null bound is open. Only the path down to
+		 * the first element goes on the stack, so going through k elements
+		 * takes O(log n + k) instead of starting at the smallest element.
+		 * 
+		 * @param from
+		 *            - the lower bound, or null
+		 * @param fromInclusive
+		 *            - true if from itself is returned
+		 * @param to
+		 *            - the upper bound, or null
+		 * @param toInclusive
+		 *            - true if to itself is returned
+		 */
+		private LazyInOrderIterator(T from, boolean fromInclusive, T to,
+				boolean toInclusive) {
+			this.modifications = RedBlackTree.this.modifications;
+			this.lastNode = null;
+			this.to = to;
+			this.toInclusive = toInclusive;
+			BinaryNode node = RedBlackTree.this.root;
+			while (node != null) {
+				int compared = from == null ? 1 : node.element.compareTo(from);
+				if (compared > 0 || (compared == 0 && fromInclusive)) {
+					// node is in range, so it comes after its left subtree
+					this.stack.push(node);
+					node = node.leftChild;
+				} else {
+					// node and its left subtree are all below from
+					node = node.rightChild;
+				}
+			}
+		}
+
 		/**
 		 * Checks if there exists a next element in the iterator. If there is,
 		 * return TRUE, else FALSE.
@@ -1028,7 +1843,12 @@ public class RedBlackTree<T extends Comparable<? super T>> implements
 		 * @return boolean if there is a next value
 		 */
 		public boolean hasNext() {
-			return !this.stack.empty();
+			if (this.stack.empty())
+				return false;
+			if (this.to == null)
+				return true;
+			int compared = this.stack.peek().element.compareTo(this.to);
+			return compared < 0 || (compared == 0 && this.toInclusive);
 		}
 
 		/**
@@ -1083,6 +1903,143 @@ public class RedBlackTree<T extends Comparable<? super T>> implements
 		}
 	}
 
+	/**
+	 * An in-order spliterator object. Like LazyInOrderIterator it keeps a stack
+	 * of nodes, each of which comes before its right subtree, and it may start
+	 * with a pending node that comes before all of them. Splitting hands off
+	 * every stack entry but the bottom one, which is a node and its right
+	 * subtree; from the root, that splits the tree at the root. A stack with
+	 * only one entry splits inside the right subtree of that node instead.
+	 * 
+	 * @author derrowap
+	 * 
+	 */
+	@SuppressWarnings("rawtypes")
+	private class LazySpliterator implements Spliterator<RedBlackTree.BinaryNode> {
+		Stack<BinaryNode> stack;
+		BinaryNode pending;
+		int size;
+		int modifications;
+
+		/**
+		 * Constructs a spliterator over the whole tree.
+		 */
+		private LazySpliterator() {
+			this.stack = new Stack<>();
+			this.pending = null;
+			this.size = RedBlackTree.this.size;
+			this.modifications = RedBlackTree.this.modifications;
+			this.pushLeft(this.stack, RedBlackTree.this.root);
+		}
+
+		/**
+		 * Constructs a spliterator split off from another one.
+		 * 
+		 * @param pending
+		 *            - the node to return first, or null
+		 * @param stack
+		 *            - the stack of nodes to return after it
+		 * @param size
+		 *            - the number of elements
+		 * @param modifications
+		 *            - the modification count the tree had to start with
+		 */
+		private LazySpliterator(BinaryNode pending, Stack<BinaryNode> stack,
+				int size, int modifications) {
+			this.stack = stack;
+			this.pending = pending;
+			this.size = size;
+			this.modifications = modifications;
+		}
+
+		/**
+		 * Pushes the specified node and all of its left children on the
+		 * specified stack.
+		 * 
+		 * @param stack
+		 *            - the stack to push onto
+		 * @param node
+		 *            - the node to start at, or null
+		 */
+		private void pushLeft(Stack<BinaryNode> stack, BinaryNode node) {
+			while (node != null) {
+				stack.push(node);
+				node = node.leftChild;
+			}
+		}
+
+		public boolean tryAdvance(Consumer<? super RedBlackTree.BinaryNode> action) {
+			if (action == null)
+				throw new NullPointerException();
+			if (this.modifications != RedBlackTree.this.modifications)
+				throw new ConcurrentModificationException();
+			BinaryNode node = this.pending;
+			if (node != null) {
+				this.pending = null;
+			} else {
+				if (this.stack.empty())
+					return false;
+				node = this.stack.pop();
+				this.pushLeft(this.stack, node.rightChild);
+			}
+			this.size--;
+			action.accept(node);
+			return true;
+		}
+
+		public Spliterator<RedBlackTree.BinaryNode> trySplit() {
+			Stack<BinaryNode> prefix = new Stack<>();
+			BinaryNode prefixPending = this.pending;
+			int prefixSize;
+			if (this.stack.size() >= 2) {
+				BinaryNode last = this.stack.get(0);
+				prefix.addAll(this.stack.subList(1, this.stack.size()));
+				this.stack.setSize(1);
+				prefixSize = this.size - 1 - sizeOf(last.rightChild);
+			} else if (this.stack.size() == 1 && this.pending == null) {
+				BinaryNode node = this.stack.peek();
+				BinaryNode right = node.rightChild;
+				if (right == null)
+					return null;
+				// node and the left subtree of right go, right and its right
+				// subtree stay
+				prefixPending = this.stack.pop();
+				this.stack.push(right);
+				this.pushLeft(prefix, right.leftChild);
+				prefixSize = 1 + sizeOf(right.leftChild);
+			} else if (this.stack.size() == 1) {
+				prefixSize = 1;
+			} else {
+				return null;
+			}
+			this.pending = null;
+			this.size -= prefixSize;
+			return new LazySpliterator(prefixPending, prefix, prefixSize,
+					this.modifications);
+		}
+
+		public long estimateSize() {
+			return this.size;
+		}
+
+		public int characteristics() {
+			return Spliterator.ORDERED | Spliterator.SORTED
+					| Spliterator.DISTINCT | Spliterator.NONNULL
+					| Spliterator.SIZED | Spliterator.SUBSIZED;
+		}
+
+		/**
+		 * Returns the order of the nodes, which is the natural order of their
+		 * elements.
+		 * 
+		 * @return the order of the elements
+		 */
+		@SuppressWarnings("unchecked")
+		public Comparator<? super RedBlackTree.BinaryNode> getComparator() {
+			return (a, b) -> a.getElement().compareTo(b.getElement());
+		}
+	}
+
 	/**
 	 * A lazy pre-order iterator object.
 	 * 
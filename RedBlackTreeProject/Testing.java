@@ -1,8 +1,15 @@
 import static org.junit.Assert.*;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Random;
+import java.util.SortedSet;
+import java.util.Spliterator;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
 
 import org.junit.AfterClass;
 import org.junit.Test;
@@ -1031,6 +1038,352 @@ public class Testing {
     }
 
     
+	@Test
+	public void testBuildFromSorted(){
+		RedBlackTree<Integer> t = new RedBlackTree<Integer>();
+		for (int n = 0; n < 300; n++){
+			Integer[] elements = new Integer[n];
+			for (int k = 0; k < n; k++)
+				elements[k] = 3 * k;
+			t.buildFromSorted(elements);
+			assertEquals(n, t.size());
+			if (n > 0)
+				assertEquals(RedBlackTree.Color.BLACK, t.root.getColor());
+			checkRedBlack(t.root);
+			ArrayList<Integer> inOrder = new ArrayList<Integer>();
+			addInOrder(t.root, inOrder);
+			assertEquals(Arrays.asList(elements), inOrder);
+		}
+		assertEquals(0, t.getRotationCount());
+		
+		t.buildFromSorted(Arrays.asList(10, 20, 30, 40, 50, 60).iterator(), 6);
+		assertTrue(t.insert(70));
+		assertTrue(t.insert(35));
+		assertTrue(t.remove(10));
+		checkRedBlack(t.root);
+		ArrayList<Integer> inOrder = new ArrayList<Integer>();
+		addInOrder(t.root, inOrder);
+		assertEquals(Arrays.asList(20, 30, 35, 40, 50, 60, 70), inOrder);
+	}
+	
+	/*
+	 * Checks that no red node has a red child and that every path has the
+	 * same number of black nodes, and returns that number.
+	 */
+	private static int checkRedBlack(RedBlackTree<Integer>.BinaryNode node){
+		if (node == null)
+			return 1;
+		int left = checkRedBlack(node.getLeftChild());
+		int right = checkRedBlack(node.getRightChild());
+		assertEquals(left, right);
+		if (node.getColor() == RedBlackTree.Color.BLACK)
+			return left + 1;
+		if (node.getLeftChild() != null)
+			assertEquals(RedBlackTree.Color.BLACK, node.getLeftChild().getColor());
+		if (node.getRightChild() != null)
+			assertEquals(RedBlackTree.Color.BLACK, node.getRightChild().getColor());
+		return left;
+	}
+	
+	private static void addInOrder(RedBlackTree<Integer>.BinaryNode node, ArrayList<Integer> list){
+		if (node == null)
+			return;
+		addInOrder(node.getLeftChild(), list);
+		list.add(node.getElement());
+		addInOrder(node.getRightChild(), list);
+	}
+	
+	@Test
+	public void testSelectAndRank(){
+		RedBlackTree<Integer> t = new RedBlackTree<Integer>();
+		try {
+			t.select(0);
+			fail("Did not throw IndexOutOfBoundsException");
+		} catch (IndexOutOfBoundsException e){
+			// Pass
+		}
+		assertEquals(0, t.rank(5));
+		
+		Random rand = new Random(230);
+		TreeSet<Integer> expected = new TreeSet<Integer>();
+		for (int k = 0; k < 3000; k++){
+			int e = rand.nextInt(2000);
+			if (rand.nextInt(3) == 0)
+				assertEquals(expected.remove(e), t.remove(e));
+			else
+				assertEquals(expected.add(e), t.insert(e));
+			assertEquals(expected.size(), checkSizes(t.root));
+		}
+		ArrayList<Integer> sorted = new ArrayList<Integer>(expected);
+		for (int k = 0; k < sorted.size(); k++){
+			assertEquals(sorted.get(k), t.select(k));
+			assertEquals(k, t.rank(sorted.get(k)));
+		}
+		for (int e = -1; e <= 2000; e++)
+			assertEquals(expected.headSet(e).size(), t.rank(e));
+		try {
+			t.select(t.size());
+			fail("Did not throw IndexOutOfBoundsException");
+		} catch (IndexOutOfBoundsException e){
+			// Pass
+		}
+		
+		Integer[] elements = new Integer[100];
+		for (int k = 0; k < elements.length; k++)
+			elements[k] = 2 * k;
+		t.buildFromSorted(elements);
+		assertEquals(100, checkSizes(t.root));
+		assertEquals(50, t.rank(99));
+		assertEquals(198, (int) t.select(99));
+	}
+	
+	/*
+	 * Checks that every node's subtree size is the sum of its children's
+	 * plus one, and returns the size of the subtree.
+	 */
+	private static int checkSizes(RedBlackTree<Integer>.BinaryNode node){
+		if (node == null)
+			return 0;
+		int size = 1 + checkSizes(node.getLeftChild()) + checkSizes(node.getRightChild());
+		assertEquals(size, node.getSubtreeSize());
+		return size;
+	}
+	
+	@Test
+	public void testFloorCeilingLowerHigher(){
+		RedBlackTree<Integer> b = new RedBlackTree<Integer>();
+		assertNull(b.floor(5));
+		assertNull(b.ceiling(5));
+		assertNull(b.lower(5));
+		assertNull(b.higher(5));
+		try {
+			b.floor(null);
+			fail("Did not throw IllegalArgumentException");
+		} catch (IllegalArgumentException e){
+			// Pass
+		}
+		
+		Random rand = new Random(222);
+		TreeSet<Integer> expected = new TreeSet<Integer>();
+		for (int k = 0; k < 2000; k++){
+			int e = 2 * rand.nextInt(1000);
+			if (rand.nextInt(3) == 0)
+				assertEquals(expected.remove(e), b.remove(e));
+			else
+				assertEquals(expected.add(e), b.insert(e));
+		}
+		for (int e = -1; e <= 2000; e++){
+			assertEquals(expected.floor(e), b.floor(e));
+			assertEquals(expected.ceiling(e), b.ceiling(e));
+			assertEquals(expected.lower(e), b.lower(e));
+			assertEquals(expected.higher(e), b.higher(e));
+		}
+	}
+	
+	@Test
+	public void testRangeViews(){
+		RedBlackTree<Integer> b = new RedBlackTree<Integer>();
+		assertEquals(0, b.subSet(1, 5).size());
+		assertFalse(b.tailSet(1).iterator().hasNext());
+		try {
+			b.subSet(5, 1);
+			fail("Did not throw IllegalArgumentException");
+		} catch (IllegalArgumentException e){
+			// Pass
+		}
+		
+		Random rand = new Random(232);
+		TreeSet<Integer> expected = new TreeSet<Integer>();
+		for (int k = 0; k < 1000; k++){
+			int e = 2 * rand.nextInt(500);
+			expected.add(e);
+			b.insert(e);
+		}
+		for (int k = 0; k < 200; k++){
+			int from = rand.nextInt(1002) - 1;
+			int to = from + rand.nextInt(1002 - from);
+			boolean fromInclusive = rand.nextBoolean();
+			boolean toInclusive = rand.nextBoolean();
+			assertRange(expected.subSet(from, fromInclusive, to, toInclusive),
+					b.subSet(from, fromInclusive, to, toInclusive));
+			assertRange(expected.subSet(from, to), b.subSet(from, to));
+			assertRange(expected.headSet(to), b.headSet(to));
+			assertRange(expected.tailSet(from), b.tailSet(from));
+		}
+		
+		RedBlackTree<Integer>.SubSet view = b.subSet(100, 200);
+		int before = view.size();
+		b.insert(151);
+		assertEquals(before + 1, view.size());
+		b.remove(151);
+		assertEquals(before, view.size());
+	}
+	
+	private static void assertRange(SortedSet<Integer> expected,
+			RedBlackTree<Integer>.SubSet actual){
+		assertEquals(expected.size(), actual.size());
+		assertEquals(expected.isEmpty(), actual.isEmpty());
+		Iterator<RedBlackTree.BinaryNode> i = actual.iterator();
+		for (Integer e : expected){
+			assertTrue(i.hasNext());
+			assertEquals(e, i.next().getElement());
+		}
+		assertFalse(i.hasNext());
+	}
+	
+	@Test
+	public void testSpliterator(){
+		RedBlackTree<Integer> b = new RedBlackTree<Integer>();
+		assertFalse(b.spliterator().tryAdvance(e -> fail()));
+		assertNull(b.spliterator().trySplit());
+		
+		Random rand = new Random(242);
+		TreeSet<Integer> expected = new TreeSet<Integer>();
+		for (int k = 0; k < 3000; k++){
+			int e = rand.nextInt(5000);
+			expected.add(e);
+			b.insert(e);
+		}
+		Spliterator<RedBlackTree.BinaryNode> s = b.spliterator();
+		assertTrue(s.hasCharacteristics(Spliterator.SORTED | Spliterator.DISTINCT
+				| Spliterator.SIZED));
+		assertEquals(expected.size(), s.getExactSizeIfKnown());
+		ArrayList<Integer> actual = new ArrayList<Integer>();
+		splitAll(s, actual);
+		assertEquals(new ArrayList<Integer>(expected), actual);
+		
+		List<Integer> parallel = StreamSupport.stream(b.spliterator(), true)
+				.map(node -> (Integer) node.getElement()).collect(Collectors.toList());
+		assertEquals(new ArrayList<Integer>(expected), parallel);
+		assertEquals(expected.stream().mapToLong(e -> e).sum(),
+				StreamSupport.stream(b.spliterator(), true).map(node -> (Integer) node.getElement())
+						.mapToLong(e -> e).sum());
+	}
+	
+	/*
+	 * Splits the spliterator as far as it goes, depth first, and adds the
+	 * elements of every part to the list in order.
+	 */
+	private static void splitAll(Spliterator<RedBlackTree.BinaryNode> s, List<Integer> list){
+		long total = s.estimateSize();
+		Spliterator<RedBlackTree.BinaryNode> prefix = s.trySplit();
+		if (prefix == null){
+			long size = s.estimateSize();
+			int before = list.size();
+			s.forEachRemaining(e -> list.add((Integer) e.getElement()));
+			assertEquals(size, list.size() - before);
+			return;
+		}
+		assertTrue(s.hasCharacteristics(Spliterator.SUBSIZED));
+		assertEquals(total, prefix.estimateSize() + s.estimateSize());
+		splitAll(prefix, list);
+		splitAll(s, list);
+	}
+	
+	@Test
+	public void testSplitAndJoin(){
+		Random rand = new Random(251);
+		for (int round = 0; round < 40; round++){
+			RedBlackTree<Integer> b = new RedBlackTree<Integer>();
+			TreeSet<Integer> expected = new TreeSet<Integer>();
+			int n = rand.nextInt(round < 20 ? 20 : 2000);
+			for (int k = 0; k < n; k++){
+				int e = 2 * rand.nextInt(2000);
+				expected.add(e);
+				b.insert(e);
+			}
+			int key = rand.nextInt(4002) - 1;
+			RedBlackTree<Integer> above = b.split(key);
+			assertTree(expected.headSet(key), b);
+			assertTree(expected.tailSet(key), above);
+			
+			// take the pivot out of the upper part and join everything back
+			Integer pivot = expected.ceiling(key);
+			if (pivot == null){
+				pivot = 4001;
+				expected.add(pivot);
+			} else {
+				assertTrue(above.remove(pivot));
+			}
+			RedBlackTree<Integer> joined = RedBlackTree.join(b, pivot, above);
+			assertTree(expected, joined);
+			assertEquals(0, b.size());
+			assertEquals(0, above.size());
+			
+			// nodes from both trees still update the sizes of the joined one
+			for (int k = 0; k < 200; k++){
+				int e = rand.nextInt(4002);
+				if (rand.nextBoolean())
+					assertEquals(expected.add(e), joined.insert(e));
+				else
+					assertEquals(expected.remove(e), joined.remove(e));
+			}
+			assertTree(expected, joined);
+		}
+		
+		RedBlackTree<Integer> small = new RedBlackTree<Integer>();
+		small.insert(1);
+		RedBlackTree<Integer> large = new RedBlackTree<Integer>();
+		TreeSet<Integer> expected = new TreeSet<Integer>();
+		expected.add(1);
+		expected.add(2);
+		for (int k = 3; k < 3000; k++){
+			large.insert(k);
+			expected.add(k);
+		}
+		assertTree(expected, RedBlackTree.join(small, 2, large));
+		large.insert(3);
+		try {
+			RedBlackTree.join(new RedBlackTree<Integer>(), 5, large);
+			fail("Did not throw IllegalArgumentException");
+		} catch (IllegalArgumentException e){
+			// Pass
+		}
+	}
+	
+	/*
+	 * Checks that the tree is balanced, that its sizes add up and that it
+	 * holds exactly the expected elements.
+	 */
+	private static void assertTree(SortedSet<Integer> expected, RedBlackTree<Integer> b){
+		checkRedBlack(b.root);
+		if (b.root != null)
+			assertEquals(RedBlackTree.Color.BLACK, b.root.getColor());
+		assertEquals(expected.size(), checkSizes(b.root));
+		assertEquals(expected.size(), b.size());
+		int k = 0;
+		for (Integer e : expected)
+			assertEquals(e, b.select(k++));
+	}
+	
+	@Test
+	public void testRepeatedSplit(){
+		// trees that came out of a split are split again, so the black
+		// heights carried down the path must match the joined pieces
+		Random rand = new Random(252);
+		RedBlackTree<Integer> b = new RedBlackTree<Integer>();
+		TreeSet<Integer> expected = new TreeSet<Integer>();
+		for (int k = 0; k < 3000; k++){
+			int e = rand.nextInt(10000);
+			expected.add(e);
+			b.insert(e);
+		}
+		int high = 10000;
+		while (!expected.isEmpty()){
+			int key = expected.first() + rand.nextInt(high - expected.first() + 1);
+			RedBlackTree<Integer> above = b.split(key);
+			assertTree(expected.headSet(key), b);
+			assertTree(expected.tailSet(key), above);
+			if (rand.nextBoolean()){
+				b = above;
+				expected = new TreeSet<Integer>(expected.tailSet(key));
+			} else {
+				expected = new TreeSet<Integer>(expected.headSet(key));
+				high = key;
+			}
+		}
+	}
+	
 	@AfterClass
 	public static void testDoNothing(){
 		System.out.println("Points: " + points + "/100");